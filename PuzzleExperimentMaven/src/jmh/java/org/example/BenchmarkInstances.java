@@ -0,0 +1,29 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Fixed, seeded 3x3 instance sets with a known optimal solution depth, the same on every run
+final class BenchmarkInstances {
+    static final long SEED = 20240501L;
+
+    private BenchmarkInstances() {
+    }
+
+    // count instances whose optimal solution has exactly depth moves
+    static List<Puzzle> withDepth(int depth, int count) {
+        Random random = new Random(SEED + depth);
+        int[][] goal = Puzzle.generateGoalState(3);
+        EightPuzzleSolver solver = new EightPuzzleSolver();
+        List<Puzzle> instances = new ArrayList<>();
+        while (instances.size() < count) {
+            Puzzle candidate = new Puzzle(Workload.randomWalk(goal, depth + random.nextInt(40), random));
+            AStarSearch.PuzzleNode goalNode = solver.solveStepByStep(candidate, goal, "Manhattan");
+            if (goalNode.getG() == depth) {
+                instances.add(candidate);
+            }
+        }
+        return instances;
+    }
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Full solves of a fixed set of 3x3 instances per solution depth, one op = one solve
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+    private static final int INSTANCES = 16;
+
+    @Param({"Hamming", "Manhattan"})
+    public String heuristic;
+
+    @Param({"8", "16", "24"})
+    public int depth;
+
+    @Param({"array", "packed", "bucket", "perfectHash", "arena"})
+    public String solver;
+
+    private List<Puzzle> instances;
+    private int[][] goal;
+    private int next;
+
+    @Setup
+    public void setup() {
+        instances = BenchmarkInstances.withDepth(depth, INSTANCES);
+        goal = Puzzle.generateGoalState(3);
+    }
+
+    @Benchmark
+    public AStarSearch.PuzzleNode solveStepByStep() {
+        Puzzle puzzle = instances.get(next++ & (INSTANCES - 1)); // round robin over the set
+        return newSolver().solveStepByStep(puzzle, goal, heuristic);
+    }
+
+    private PuzzleSolver newSolver() {
+        switch (solver) {
+            case "packed":
+                return new AStarSearch(true);
+            case "bucket":
+                return new AStarSearch(true, OpenList.Type.BUCKET);
+            case "perfectHash":
+                return EightPuzzleSolver.forCurrentThread();
+            case "arena":
+                return ArenaAStarSearch.forCurrentThread();
+            default:
+                return new AStarSearch();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// The per-node operations of the search: heuristic, neighbour generation, solvability and the
+// closed list lookup (String keys vs. packed longs)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateBenchmark {
+    @Param({"Hamming", "Manhattan", "LinearConflict", "WalkingDistance"})
+    public String heuristic;
+
+    private final AStarSearch search = new AStarSearch();
+    private int[][] goal;
+    private int[][] state;
+    private int[][] childState; // state after the update benchmark's move
+    private Heuristic resolvedHeuristic;
+    private int tile;
+    private int from;
+    private int to;
+    private Puzzle puzzle;
+    private AStarSearch.PuzzleNode node;
+    private Set<String> stringClosedList;
+    private LongHashSet packedClosedList;
+
+    @Setup
+    public void setup() {
+        goal = Puzzle.generateGoalState(3);
+        List<Puzzle> instances = BenchmarkInstances.withDepth(20, 64);
+        puzzle = instances.get(0);
+        state = puzzle.getState();
+        resolvedHeuristic = Heuristic.resolve(heuristic, goal);
+        node = new AStarSearch.PuzzleNode(state, 0, resolvedHeuristic.evaluate(state), null);
+        // some tile next to the blank slid onto it, for the update benchmark: update() gets the board after the
+        // move, LinearConflict and WalkingDistance read it
+        to = AStarSearch.blankOf(state);
+        from = to >= 3 ? to - 3 : to + 3;
+        tile = state[from / 3][from % 3];
+        childState = new int[3][];
+        for (int i = 0; i < 3; i++) {
+            childState[i] = state[i].clone();
+        }
+        childState[to / 3][to % 3] = tile;
+        childState[from / 3][from % 3] = 0;
+        // closed lists as they look in the middle of a search
+        stringClosedList = new HashSet<>();
+        packedClosedList = new LongHashSet();
+        for (Puzzle instance : instances) {
+            stringClosedList.add(AStarSearch.keyOf(instance.getState()));
+            packedClosedList.add(PackedState.pack(instance.getState()));
+        }
+    }
+
+    // full evaluation, done once per solve for the start state
+    @Benchmark
+    public int evaluateHeuristic() {
+        return resolvedHeuristic.evaluate(state);
+    }
+
+    // per child: h from the parent's h and the moved tile
+    @Benchmark
+    public int updateHeuristic() {
+        return resolvedHeuristic.update(childState, node.getH(), tile, from, to);
+    }
+
+    @Benchmark
+    public List<AStarSearch.PuzzleNode> createNeighbours() {
+        return search.createNeighbours(node, resolvedHeuristic);
+    }
+
+    @Benchmark
+    public boolean isSolvable() {
+        return puzzle.isSolvable();
+    }
+
+    // closed list check as in solveStepByStep: build the key, look it up
+    @Benchmark
+    public boolean stringStateLookup() {
+        return stringClosedList.contains(AStarSearch.keyOf(state));
+    }
+
+    // same check in the packed mode
+    @Benchmark
+    public boolean packedStateLookup() {
+        return packedClosedList.contains(PackedState.pack(state));
+    }
+}
@@ -1,188 +1,432 @@
-package org.example;
-
-import java.util.*;
-
-
-// Code structure and implementation  https://www.baeldung.com/java-a-star-pathfinding
-public class AStarSearch {
-    private int expandedNodes;
-
-    // Takes the initial puzzle, its goal state (array), heuristic name (String)
-    // Returns the node with the lowest f=g+h value (the node to explore next)
-    public PuzzleNode solveStepByStep(Puzzle puzzle, int[][] goalState, String heuristicType) {
-        // Open list, represented by Priority queue, natural ordering, of nodes to explore
-        // manages states to explore based on f=g+h
-        PriorityQueue<PuzzleNode> nodesToExplore = new PriorityQueue<>();
-        Set<String> exploredNodes = new HashSet<>(); // Closed list: set of visited, fully explored nodes
-        expandedNodes = 0;
-        //create start node
-        PuzzleNode startNode = new PuzzleNode(puzzle.getState(), 0, calculateHeuristic(puzzle.getState(), goalState, heuristicType), null);
-        nodesToExplore.add(startNode); // add to "nodesToExplore"
-
-        while (!nodesToExplore.isEmpty()) {
-            PuzzleNode current = nodesToExplore.poll(); // takes the node with lowest F value
-            exploredNodes.add(Arrays.deepToString(current.getState())); // marks as visited
-
-            // If goal state reached, return node
-            if (Arrays.deepEquals(current.getState(), goalState)) {
-                return current;
-            }
-            // expand neighbours
-            for (PuzzleNode neighbor : createNeighbours(current, goalState, heuristicType)) {
-                if (!exploredNodes.contains(Arrays.deepToString(neighbor.getState()))) {
-                    nodesToExplore.add(neighbor);
-                }
-            }
-
-            expandedNodes++;
-        }
-
-        return null; // if no solution
-    }
-
-
-    // To show solution steps, by traversing from the goal node to start
-    // Takes PuzzleNode representing the goal state
-    // Gives the list for the solution path
-    public List<Puzzle> reconstructPath(PuzzleNode goalNode) {
-        List<Puzzle> path = new ArrayList<>();
-        PuzzleNode current = goalNode;
-
-        while (current != null) {
-            path.add(new Puzzle(current.getState()));
-            current = current.getParent();
-        }
-
-        Collections.reverse(path); // Reverse the path to start-to-goal order
-        return path;
-    }
-
-    // Get the number of expanded nodes
-    public int getExpandedNodes() {
-        return expandedNodes;
-    }
-
-    // Generate all valid neighbor states for the current node
-    // takes current PuzzleNode, goal state, heuristic
-    // Returns a list of PuzzleNodes representing the neighbours of the current node,
-    // by moving the 0 (empty spot on board)
-    private List<PuzzleNode> createNeighbours(PuzzleNode current, int[][] goalState, String heuristicType) {
-        List<PuzzleNode> neighbors = new ArrayList<>();
-        int[][] currentPosition = current.getState();
-        int size = currentPosition.length;
-
-        // Free space on board, for understanding lets just call it 0, gets located with the function
-        int emptySpotX = -1, emptySpotY = -1;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (currentPosition[i][j] == 0) {
-                    emptySpotX = i;
-                    emptySpotY = j;
-                }
-            }
-        }
-
-        // Possible moves for 0
-        int[][] moves = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}}; // Up, Down, Left, Right
-        for (int[] move : moves) {
-            int nextX = emptySpotX + move[0]; // x set of values for possible moves
-            int nextY = emptySpotY + move[1]; // y set of values for moves
-
-            // Check if the move is legit, whether it is inside of the playfield or not
-            if (nextX >= 0 && nextY >= 0 && nextX < size && nextY < size) {
-                int[][] nextState = copyState(currentPosition);
-
-                // Swap  0 and adjecent positions
-                nextState[emptySpotX][emptySpotY] = nextState[nextX][nextY];
-                nextState[nextX][nextY] = 0;
-
-                // Calculate the heuristic and create a new node
-                int g = current.getG() + 1;
-                int h = calculateHeuristic(nextState, goalState, heuristicType);
-                neighbors.add(new PuzzleNode(nextState, g, h, current));
-            }
-        }
-
-        return neighbors;
-    }
-
-    // Calculate the heuristic value based on the chosen type
-    // Needs the current puzzle state, goal and heuristic
-    // gives the value for either Hamming or Manhattan
-    // e.g. goal state is ofc 1,2,3,...,8 and if the current state has 5,4,1 on their spots,
-    // for Hamming it will return 5, while Manhattan will return the sum of the distance for
-    // each tile to its goal position
-    private int calculateHeuristic(int[][] state, int[][] goalState, String heuristicType) {
-        int heuristic = 0;
-        int size = state.length;
-
-        if ("Hamming".equals(heuristicType)) { // Hamming algorithm, counts misplaced tiles
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    if (state[i][j] != 0 && state[i][j] != goalState[i][j]) {
-                        heuristic++;
-                    }
-                }
-            }
-        } else if ("Manhattan".equals(heuristicType)) { // Manhattan = Sum of distances of each tile to its goal position
-            for (int i = 0; i < size; i++) {
-                for (int j = 0; j < size; j++) {
-                    if (state[i][j] != 0) {
-                        int value = state[i][j];
-                        int goalX = (value - 1) / size;
-                        int goalY = (value - 1) % size;
-                        heuristic += Math.abs(i - goalX) + Math.abs(j - goalY);
-                    }
-                }
-            }
-        }
-
-        return heuristic;
-    }
-
-    // Helper to deep copy a 2D array
-    private int[][] copyState(int[][] state) {
-        int[][] clone = new int[state.length][];
-        for (int i = 0; i < state.length; i++) {
-            clone[i] = Arrays.copyOf(state[i], state[i].length);
-        }
-        return clone;
-    }
-
-    // Node class to represent a state in the search tree; Parent Mapping
-    static class PuzzleNode implements Comparable<PuzzleNode> {
-        private final int[][] state; //current puzzle configuration
-        private final int g; // Cost from start to this node in the search tree = actual distance so far
-        private final int h; // estimated distance remaining (->goal), heuristic value (in our case Hamming or Manhattan)
-        private final PuzzleNode parent;
-
-        public PuzzleNode(int[][] state, int g, int h, PuzzleNode parent) {
-            this.state = state;
-            this.g = g;
-            this.h = h;
-            this.parent = parent;
-        }
-
-        public int[][] getState() {
-            return state;
-        }
-
-        public int getG() {
-            return g;
-        }
-
-        public PuzzleNode getParent() {
-            return parent;
-        }
-
-        public int getF() { // A*-search (formula) combines uniform cost search adn greedy search, by sum their eval.
-            return g + h;
-        }
-
-        @Override
-        public int compareTo(PuzzleNode other) {
-            return Integer.compare(this.getF(), other.getF()); // diff. f value comparison
-        }
-    }
-}
-
+package org.example;
+
+import java.util.*;
+
+
+// Code structure and implementation  https://www.baeldung.com/java-a-star-pathfinding
+public class AStarSearch implements PuzzleSolver {
+    private final boolean packedStates; // search on PackedState longs instead of int[][] + String keys
+    private final OpenList.Type openListType; // open list used when solveStepByStep is not told otherwise
+    private final double weight; // f = g + weight * h, 1 = plain A*
+    private int expandedNodes;
+    private long peakNodes; // open + closed list, at most
+    private final SearchStats stats = new SearchStats(); // counters of the current/last solve
+    private SearchMetrics metrics = SearchMetrics.NONE;
+    private boolean timed; // metrics.isTimed() of the current solve
+
+    public AStarSearch() {
+        this(false);
+    }
+
+    // packedStates = true: each state is a single long (boards up to 4x4), closed list is a LongHashSet
+    public AStarSearch(boolean packedStates) {
+        this(packedStates, OpenList.Type.PRIORITY_QUEUE);
+    }
+
+    public AStarSearch(boolean packedStates, OpenList.Type openListType) {
+        this(packedStates, openListType, 1.0);
+    }
+
+    // Weighted A* (bounded suboptimal): nodes are ordered by g + weight * h, which dives towards the goal
+    // and expands far fewer nodes. With the consistent heuristics we have (Hamming, Manhattan, PatternDatabase)
+    // the found solution costs at most weight * optimal, also without reopening closed states
+    // (Likhachev et al. 2003). Meant for 5x5 and larger boards, where optimal search is out of reach
+    public AStarSearch(boolean packedStates, OpenList.Type openListType, double weight) {
+        if (!(weight >= 1.0)) {
+            throw new IllegalArgumentException("Weight must be at least 1, was " + weight);
+        }
+        this.packedStates = packedStates;
+        this.openListType = openListType;
+        this.weight = weight;
+    }
+
+    // Takes the initial puzzle, its goal state (array), heuristic name (String)
+    // Returns the node with the lowest f=g+h value (the node to explore next)
+    @Override
+    public PuzzleNode solveStepByStep(Puzzle puzzle, int[][] goalState, String heuristicType) {
+        return solveStepByStep(puzzle, goalState, heuristicType, openListType);
+    }
+
+    // Same, with the open list implementation to use (PriorityQueue or bucket queue)
+    public PuzzleNode solveStepByStep(Puzzle puzzle, int[][] goalState, String heuristicType, OpenList.Type openListType) {
+        stats.reset();
+        timed = metrics.isTimed();
+        long solveStart = System.nanoTime();
+        // heuristic name resolved once, nodes only get O(1) updates from here on
+        Heuristic heuristic = Heuristic.resolve(heuristicType, goalState);
+        if (packedStates && PackedState.fits(goalState.length)) {
+            return finish(solvePacked(puzzle, goalState, heuristic, openListType), solveStart);
+        }
+        // Open list of nodes to explore, manages states to explore based on f=g+h
+        OpenList nodesToExplore = OpenList.create(openListType);
+        Set<String> exploredNodes = new HashSet<>(); // Closed list: set of visited, fully explored nodes
+        expandedNodes = 0;
+        peakNodes = 0;
+        //create start node
+        int[][] startState = puzzle.getState();
+        PuzzleNode startNode = weighted(new PuzzleNode(startState, blankOf(startState), 0, heuristic.evaluate(startState), null));
+        nodesToExplore.add(startNode); // add to "nodesToExplore"
+
+        while (!nodesToExplore.isEmpty()) {
+            PuzzleNode current = poll(nodesToExplore); // takes the node with lowest F value
+            if (!exploredNodes.add(keyOf(current.getState()))) { // marks as visited
+                stats.reopened++;
+            }
+
+            // If goal state reached, return node
+            if (Arrays.deepEquals(current.getState(), goalState)) {
+                return finish(current, solveStart);
+            }
+            // expand neighbours
+            for (PuzzleNode neighbor : createNeighbours(current, heuristic)) {
+                stats.generated++;
+                if (!exploredNodes.contains(keyOf(neighbor.getState()))) {
+                    add(nodesToExplore, neighbor);
+                } else {
+                    stats.duplicates++;
+                }
+            }
+
+            expandedNodes++;
+            peakNodes = Math.max(peakNodes, (long) nodesToExplore.size() + exploredNodes.size());
+            stats.peakOpen = Math.max(stats.peakOpen, nodesToExplore.size());
+            stats.peakClosed = Math.max(stats.peakClosed, exploredNodes.size());
+        }
+
+        return finish(null, solveStart); // if no solution
+    }
+
+    // Same search as above, but states are packed longs: no int[][] copies and no String key per check
+    // Neighbours are pushed in the same order, so the expanded node counts match the int[][] version
+    private PuzzleNode solvePacked(Puzzle puzzle, int[][] goalState, Heuristic heuristic, OpenList.Type openListType) {
+        int size = goalState.length;
+        long goal = PackedState.pack(goalState);
+        OpenList nodesToExplore = OpenList.create(openListType);
+        LongHashSet exploredNodes = new LongHashSet();
+        expandedNodes = 0;
+        peakNodes = 0;
+
+        int[][] board = copyState(puzzle.getState()); // scratch board for the heuristic updates
+        long start = PackedState.pack(board);
+        nodesToExplore.add(weighted(new PuzzleNode(start, size, blankOf(board), 0, heuristic.evaluate(board), null)));
+
+        while (!nodesToExplore.isEmpty()) {
+            PuzzleNode current = poll(nodesToExplore);
+            long currentState = current.getPackedState();
+            if (!exploredNodes.add(currentState)) {
+                stats.reopened++;
+            }
+
+            if (currentState == goal) {
+                return current;
+            }
+            // expand neighbours, 0 swaps with the tile next to it (Up, Down, Left, Right like createNeighbours)
+            int blank = current.getBlank();
+            int blankX = blank / size, blankY = blank % size;
+            boolean unpacked = false;
+            for (int[] move : MOVES) {
+                int nextX = blankX + move[0];
+                int nextY = blankY + move[1];
+                if (nextX >= 0 && nextY >= 0 && nextX < size && nextY < size) {
+                    int next = nextX * size + nextY;
+                    long nextState = PackedState.move(currentState, blank, next);
+                    stats.generated++;
+                    if (exploredNodes.contains(nextState)) {
+                        stats.duplicates++;
+                    } else {
+                        if (!unpacked) { // board written once per expansion, only if a child is kept
+                            unpackInto(currentState, board);
+                            unpacked = true;
+                        }
+                        // move on the scratch board, update h, move back
+                        int tile = board[nextX][nextY];
+                        board[blankX][blankY] = tile;
+                        board[nextX][nextY] = 0;
+                        int h = update(heuristic, board, current.getH(), tile, next, blank);
+                        board[nextX][nextY] = tile;
+                        board[blankX][blankY] = 0;
+                        add(nodesToExplore, weighted(new PuzzleNode(nextState, size, next, current.getG() + 1, h, current)));
+                    }
+                }
+            }
+
+            expandedNodes++;
+            peakNodes = Math.max(peakNodes, (long) nodesToExplore.size() + exploredNodes.size());
+            stats.peakOpen = Math.max(stats.peakOpen, nodesToExplore.size());
+            stats.peakClosed = Math.max(stats.peakClosed, exploredNodes.size());
+        }
+
+        return null;
+    }
+
+    // Hands the counters of the solve to the metrics, passes the result through
+    private PuzzleNode finish(PuzzleNode goalNode, long solveStart) {
+        stats.expanded = expandedNodes;
+        stats.solveNanos = System.nanoTime() - solveStart;
+        metrics.record(stats);
+        return goalNode;
+    }
+
+    // open list and heuristic calls, timed only if the metrics ask for it
+    private PuzzleNode poll(OpenList nodesToExplore) {
+        if (!timed) {
+            return nodesToExplore.poll();
+        }
+        long start = System.nanoTime();
+        PuzzleNode node = nodesToExplore.poll();
+        stats.queueNanos += System.nanoTime() - start;
+        return node;
+    }
+
+    private void add(OpenList nodesToExplore, PuzzleNode node) {
+        if (!timed) {
+            nodesToExplore.add(node);
+            return;
+        }
+        long start = System.nanoTime();
+        nodesToExplore.add(node);
+        stats.queueNanos += System.nanoTime() - start;
+    }
+
+    private int update(Heuristic heuristic, int[][] state, int h, int tile, int from, int to) {
+        if (!timed) {
+            return heuristic.update(state, h, tile, from, to);
+        }
+        long start = System.nanoTime();
+        int updated = heuristic.update(state, h, tile, from, to);
+        stats.heuristicNanos += System.nanoTime() - start;
+        return updated;
+    }
+
+
+    // To show solution steps, by traversing from the goal node to start
+    // Takes PuzzleNode representing the goal state
+    // Gives the list for the solution path
+    @Override
+    public List<Puzzle> reconstructPath(PuzzleNode goalNode) {
+        return pathOf(goalNode);
+    }
+
+    // reconstructPath for any chain of PuzzleNodes, shared with the other solvers
+    // every step gets a board of its own: node states share the rows a move did not touch (createNeighbours),
+    // and callers may change what Puzzle.getState() gives them
+    static List<Puzzle> pathOf(PuzzleNode goalNode) {
+        List<Puzzle> path = new ArrayList<>();
+        PuzzleNode current = goalNode;
+
+        while (current != null) {
+            path.add(new Puzzle(copyState(current.getState())));
+            current = current.getParent();
+        }
+
+        Collections.reverse(path); // Reverse the path to start-to-goal order
+        return path;
+    }
+
+    // Get the number of expanded nodes
+    @Override
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    @Override
+    public long getPeakNodes() {
+        return peakNodes;
+    }
+
+    // Instrumentation for the following solves, SearchMetrics.NONE (the default) to switch it off
+    public void setMetrics(SearchMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Counters of the last solve
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    // Solutions cost at most weight * optimal
+    public double getWeight() {
+        return weight;
+    }
+
+    // Sets the priority for the weighted search, rounded down so g + weight * h is never exceeded
+    private PuzzleNode weighted(PuzzleNode node) {
+        if (weight != 1.0) {
+            node.f = node.g + (int) (weight * node.h);
+        }
+        return node;
+    }
+
+    // Possible moves for 0
+    private static final int[][] MOVES = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}}; // Up, Down, Left, Right
+
+    // Generate all valid neighbor states for the current node
+    // takes current PuzzleNode and the resolved heuristic
+    // Returns a list of PuzzleNodes representing the neighbours of the current node,
+    // by moving the 0 (empty spot on board)
+    // The search never changes a state once created, so a neighbour only copies the (at most two) rows the move
+    // touches and shares the other rows with its parent (solution paths get copies, see pathOf); h is updated
+    // from the parent's h
+    List<PuzzleNode> createNeighbours(PuzzleNode current, Heuristic heuristic) {
+        List<PuzzleNode> neighbors = new ArrayList<>(4);
+        int[][] currentPosition = current.getState();
+        int size = currentPosition.length;
+
+        // Free space on board, for understanding lets just call it 0, stored in the node so no board scan
+        int blank = current.getBlank();
+        int emptySpotX = blank / size, emptySpotY = blank % size;
+
+        // Possible moves for 0
+        for (int[] move : MOVES) {
+            int nextX = emptySpotX + move[0]; // x set of values for possible moves
+            int nextY = emptySpotY + move[1]; // y set of values for moves
+
+            // Check if the move is legit, whether it is inside of the playfield or not
+            if (nextX >= 0 && nextY >= 0 && nextX < size && nextY < size) {
+                int[][] nextState = currentPosition.clone();
+                nextState[emptySpotX] = currentPosition[emptySpotX].clone();
+                if (nextX != emptySpotX) {
+                    nextState[nextX] = currentPosition[nextX].clone();
+                }
+
+                // Swap  0 and adjecent positions
+                int tile = currentPosition[nextX][nextY];
+                nextState[emptySpotX][emptySpotY] = tile;
+                nextState[nextX][nextY] = 0;
+
+                // Only the moved tile changes, the heuristic updates the parent's value
+                int next = nextX * size + nextY;
+                int g = current.getG() + 1;
+                int h = update(heuristic, nextState, current.getH(), tile, next, blank);
+                neighbors.add(weighted(new PuzzleNode(nextState, next, g, h, current)));
+            }
+        }
+
+        return neighbors;
+    }
+
+    // Closed list key of a board: one char per cell, about half the time of Arrays.deepToString and
+    // much shorter on the big boards (5x5 and up) that do not fit a PackedState
+    static String keyOf(int[][] state) {
+        char[] key = new char[state.length * state.length];
+        int k = 0;
+        for (int[] row : state) {
+            for (int tile : row) {
+                key[k++] = (char) tile;
+            }
+        }
+        return new String(key);
+    }
+
+    // Cell (row * size + column) of the 0
+    static int blankOf(int[][] state) {
+        for (int i = 0; i < state.length; i++) {
+            for (int j = 0; j < state.length; j++) {
+                if (state[i][j] == 0) {
+                    return i * state.length + j;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static void unpackInto(long packed, int[][] board) {
+        int size = board.length;
+        for (int cell = 0; cell < size * size; cell++) {
+            board[cell / size][cell % size] = PackedState.get(packed, cell);
+        }
+    }
+
+    // Helper to deep copy a 2D array
+    private static int[][] copyState(int[][] state) {
+        int[][] clone = new int[state.length][];
+        for (int i = 0; i < state.length; i++) {
+            clone[i] = Arrays.copyOf(state[i], state[i].length);
+        }
+        return clone;
+    }
+
+    // Node class to represent a state in the search tree; Parent Mapping
+    static class PuzzleNode implements Comparable<PuzzleNode> {
+        private int[][] state; //current puzzle configuration, for packed nodes only built when asked for
+        private final long packedState; // PackedState of the board, only set for packed nodes
+        private final int size;
+        private int blank; // cell of the 0, -1 until known
+        private int f; // g + h, or the weighted priority of a weighted A* search
+        private final int g; // Cost from start to this node in the search tree = actual distance so far
+        private final int h; // estimated distance remaining (->goal), heuristic value (in our case Hamming or Manhattan)
+        private final PuzzleNode parent;
+
+        public PuzzleNode(int[][] state, int g, int h, PuzzleNode parent) {
+            this(state, -1, g, h, parent);
+        }
+
+        // blank = cell of the 0 if the caller knows it already, -1 otherwise
+        public PuzzleNode(int[][] state, int blank, int g, int h, PuzzleNode parent) {
+            this.state = state;
+            this.packedState = 0;
+            this.size = state.length;
+            this.blank = blank;
+            this.g = g;
+            this.h = h;
+            this.f = g + h;
+            this.parent = parent;
+        }
+
+        // node of the packed search, the int[][] board is unpacked lazily
+        public PuzzleNode(long packedState, int size, int g, int h, PuzzleNode parent) {
+            this(packedState, size, -1, g, h, parent);
+        }
+
+        public PuzzleNode(long packedState, int size, int blank, int g, int h, PuzzleNode parent) {
+            this.state = null;
+            this.packedState = packedState;
+            this.size = size;
+            this.blank = blank;
+            this.g = g;
+            this.h = h;
+            this.f = g + h;
+            this.parent = parent;
+        }
+
+        public int[][] getState() {
+            if (state == null) {
+                state = PackedState.unpack(packedState, size);
+            }
+            return state;
+        }
+
+        public int getBlank() {
+            if (blank < 0) {
+                blank = state != null ? blankOf(state) : PackedState.findBlank(packedState, size * size);
+            }
+            return blank;
+        }
+
+        public long getPackedState() {
+            return packedState;
+        }
+
+        public int getG() {
+            return g;
+        }
+
+        public int getH() {
+            return h;
+        }
+
+        public PuzzleNode getParent() {
+            return parent;
+        }
+
+        public int getF() { // A*-search (formula) combines uniform cost search adn greedy search, by sum their eval.
+            return f;
+        }
+
+        @Override
+        public int compareTo(PuzzleNode other) {
+            return Integer.compare(this.getF(), other.getF()); // diff. f value comparison
+        }
+    }
+}
+
@@ -0,0 +1,264 @@
+package org.example;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+// A* on packed states (boards up to 4x4) with every search node in a NodeArena instead of a PuzzleNode object
+// Open list = binary heap of longs: f << 48 | h << 32 | (reversed) arena index, so lowest f, then lowest h,
+// then newest node first (LIFO on plateaus like BucketOpenList). Closed list = LongHashSet.
+// Parents are arena indices; PuzzleNodes are only built for the solution path once the goal is found.
+// The arena and the closed list are cleared and reused by the next solve, so a pooled solver stops allocating
+public class ArenaAStarSearch implements PuzzleSolver {
+    private static final int[][] MOVES = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}}; // Up, Down, Left, Right
+    private static final ThreadLocal<ArenaAStarSearch> POOL = ThreadLocal.withInitial(ArenaAStarSearch::new);
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final int DEADLINE_CHECK_MASK = 1023; // System.nanoTime() only every 1024 expansions
+
+    private final NodeArena arena = new NodeArena();
+    private final LongHashSet closed = new LongHashSet();
+    private long[] heap = new long[1 << 12];
+    private int heapSize;
+    private int expandedNodes;
+    private long peakNodes;
+    private long deadline = NO_DEADLINE;
+
+    // Solver owned by the calling thread, its arrays are reused by every solve
+    public static ArenaAStarSearch forCurrentThread() {
+        return POOL.get();
+    }
+
+    // Memory report: the same random 4x4 boards with the packed AStarSearch (a PuzzleNode object per node) and
+    // with the arena, a fresh solver per board
+    // allocated = bytes the thread allocated during the solves per stored node (includes growing the arrays)
+    // held = bytes the search holds at its end per stored node: for the arena the capacity of its arrays,
+    // for AStarSearch the measured size of a PuzzleNode plus its open list slot plus the closed set table
+    // Usage: ArenaAStarSearch [boards] [heuristic]
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String heuristicType = args.length > 1 ? args[1] : "PatternDatabase";
+        int[][] goalState = Puzzle.generateGoalState(4);
+        Random random = new Random(11); // same boards as the ParallelAStarSearch report
+        List<Puzzle> puzzles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            puzzles.add(new Puzzle(Puzzle.generateSolvableState(4, random)));
+        }
+        PatternDatabase.forSize(4); // mapped before measuring
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double puzzleNodeBytes = puzzleNodeBytes();
+
+        for (int variant = 0; variant < 2; variant++) {
+            System.gc();
+            long gcCount = gcCount(), gcMillis = gcMillis();
+            long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            long start = System.nanoTime();
+            long stored = 0;
+            double held = 0;
+            for (Puzzle puzzle : puzzles) {
+                if (variant == 0) {
+                    AStarSearch search = new AStarSearch(true, OpenList.Type.BUCKET);
+                    search.solveStepByStep(puzzle, goalState, heuristicType);
+                    SearchStats stats = search.getStats();
+                    long nodes = stats.getGenerated() - stats.getDuplicates() + 1;
+                    stored += nodes;
+                    // closed set: power of two table, at most half full
+                    held += nodes * (puzzleNodeBytes + 4) + Long.highestOneBit(stats.getPeakClosed() * 2) * 2 * Long.BYTES;
+                } else {
+                    ArenaAStarSearch search = new ArenaAStarSearch();
+                    search.solveStepByStep(puzzle, goalState, heuristicType);
+                    stored += search.getStoredNodes();
+                    held += search.arena.capacityBytes() + search.closed.capacityBytes() + (long) search.heap.length * Long.BYTES;
+                }
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            double allocatedPerNode = (double) (threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocated) / stored;
+            System.out.printf("%s: %d ms, %d nodes stored, allocated %.1f / held %.1f bytes per node (%.1f M nodes per GB),"
+                            + " %d GCs, %d ms GC%n", variant == 0 ? "AStarSearch (PuzzleNode objects)" : "ArenaAStarSearch (NodeArena)",
+                    millis, stored, allocatedPerNode, held / stored, (1L << 30) / (held / stored) / 1e6,
+                    gcCount() - gcCount, gcMillis() - gcMillis);
+        }
+    }
+
+    // Heap taken by one packed PuzzleNode: a million of them kept alive, used heap after GC before and after
+    private static double puzzleNodeBytes() {
+        int count = 1_000_000;
+        AStarSearch.PuzzleNode[] nodes = new AStarSearch.PuzzleNode[count];
+        long before = usedHeapAfterGc();
+        for (int i = 0; i < count; i++) {
+            nodes[i] = new AStarSearch.PuzzleNode(i, 4, 0, i, 0, i == 0 ? null : nodes[i - 1]);
+        }
+        long after = usedHeapAfterGc();
+        return nodes[count - 1].getG() >= 0 ? (double) (after - before) / count : 0; // keeps the array alive
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += gc.getCollectionCount();
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += gc.getCollectionTime();
+        }
+        return millis;
+    }
+
+    @Override
+    public AStarSearch.PuzzleNode solveStepByStep(Puzzle puzzle, int[][] goalState, String heuristicType) {
+        int size = goalState.length;
+        if (!PackedState.fits(size)) {
+            throw new IllegalArgumentException("ArenaAStarSearch works on packed states, boards up to 4x4");
+        }
+        arena.clear();
+        closed.clear();
+        heapSize = 0;
+        expandedNodes = 0;
+        peakNodes = 0;
+        Heuristic heuristic = Heuristic.resolve(heuristicType, goalState);
+        long goal = PackedState.pack(goalState);
+        int[][] board = new int[size][size]; // scratch board for the heuristic updates
+        for (int i = 0; i < size; i++) {
+            board[i] = puzzle.getState()[i].clone();
+        }
+        int startH = heuristic.evaluate(board);
+        push(startH, startH, arena.add(PackedState.pack(board), NodeArena.NO_PARENT, 0, startH, AStarSearch.blankOf(board)));
+
+        while (heapSize > 0) {
+            int node = pop();
+            long state = arena.getState(node);
+            if (!closed.add(state)) {
+                continue; // an older copy was expanded already
+            }
+            if (state == goal) {
+                return buildPath(node, size);
+            }
+            int blank = arena.getBlank(node);
+            int blankX = blank / size, blankY = blank % size;
+            int g = arena.getG(node) + 1;
+            boolean unpacked = false;
+            for (int[] move : MOVES) {
+                int nextX = blankX + move[0];
+                int nextY = blankY + move[1];
+                if (nextX < 0 || nextY < 0 || nextX >= size || nextY >= size) {
+                    continue;
+                }
+                int next = nextX * size + nextY;
+                long child = PackedState.move(state, blank, next);
+                if (closed.contains(child)) {
+                    continue;
+                }
+                if (!unpacked) {
+                    for (int cell = 0; cell < size * size; cell++) {
+                        board[cell / size][cell % size] = PackedState.get(state, cell);
+                    }
+                    unpacked = true;
+                }
+                int tile = board[nextX][nextY];
+                board[blankX][blankY] = tile;
+                board[nextX][nextY] = 0;
+                int h = heuristic.update(board, arena.getH(node), tile, next, blank);
+                board[nextX][nextY] = tile;
+                board[blankX][blankY] = 0;
+                push(g + h, h, arena.add(child, node, g, h, next));
+            }
+            expandedNodes++;
+            peakNodes = Math.max(peakNodes, (long) heapSize + closed.size());
+            if ((expandedNodes & DEADLINE_CHECK_MASK) == 0 && deadline != NO_DEADLINE && System.nanoTime() - deadline > 0) {
+                throw new CancellationException("Deadline passed after " + expandedNodes + " expanded nodes");
+            }
+        }
+        return null;
+    }
+
+    // Solves still running at this System.nanoTime() stop with a CancellationException (the arrays stay
+    // reusable), holds for the following solves until set again; NO_DEADLINE turns it off
+    public void setDeadline(long deadlineNanos) {
+        deadline = deadlineNanos;
+    }
+
+    @Override
+    public List<Puzzle> reconstructPath(AStarSearch.PuzzleNode goalNode) {
+        return AStarSearch.pathOf(goalNode);
+    }
+
+    @Override
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    @Override
+    public long getPeakNodes() {
+        return peakNodes;
+    }
+
+    // Nodes stored in the arena by the last solve
+    public int getStoredNodes() {
+        return arena.size();
+    }
+
+    // Parent indices from the goal back to the start, PuzzleNodes only for these
+    private AStarSearch.PuzzleNode buildPath(int goalIndex, int size) {
+        List<Integer> path = new ArrayList<>();
+        for (int node = goalIndex; node != NodeArena.NO_PARENT; node = arena.getParent(node)) {
+            path.add(node);
+        }
+        Collections.reverse(path);
+        AStarSearch.PuzzleNode puzzleNode = null;
+        for (int node : path) {
+            puzzleNode = new AStarSearch.PuzzleNode(arena.getState(node), size, arena.getBlank(node), arena.getG(node),
+                    arena.getH(node), puzzleNode);
+        }
+        return puzzleNode;
+    }
+
+    private void push(int f, int h, int node) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize << 1);
+        }
+        long entry = (long) f << 48 | (long) h << 32 | (0xFFFFFFFFL - node);
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= entry) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    private int pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return (int) (0xFFFFFFFFL - (top & 0xFFFFFFFFL));
+    }
+}
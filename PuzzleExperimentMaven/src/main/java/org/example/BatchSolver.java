@@ -0,0 +1,95 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+// Solves many boards for the same goal and shares the work between them:
+// - 3x3 batches of at least TABLE_THRESHOLD boards, or any 3x3 batch once the goal's table exists:
+//   one EightPuzzleTable (backward BFS from the goal), then every board is a table walk, O(depth)
+// - otherwise one solver from the factory for the whole batch, boards that come up twice are solved once
+// Results come in the order of the input, as a list, one by one through a callback, or lazily from an iterator
+// (each board is solved when next() asks for it), so callers can use answers before the batch is done
+public class BatchSolver {
+    // building the table takes about 130 ms, solving a board with EightPuzzleSolver about 0.6 ms
+    static final int TABLE_THRESHOLD = 256;
+
+    private final Supplier<PuzzleSolver> solverFactory;
+    private final String heuristicType;
+
+    public BatchSolver(Supplier<PuzzleSolver> solverFactory, String heuristicType) {
+        this.solverFactory = solverFactory;
+        this.heuristicType = heuristicType;
+    }
+
+    // Optimal solution steps per board, null for boards without a solution
+    public List<List<Puzzle>> solveAll(Collection<Puzzle> puzzles, int[][] goalState) {
+        List<List<Puzzle>> solutions = new ArrayList<>(puzzles.size());
+        solveAll(puzzles, goalState, (puzzle, solution) -> solutions.add(solution));
+        return solutions;
+    }
+
+    // Same, each solution goes to the callback as soon as it is known
+    public void solveAll(Collection<Puzzle> puzzles, int[][] goalState, BiConsumer<Puzzle, List<Puzzle>> callback) {
+        Iterator<Puzzle> boards = puzzles.iterator();
+        Iterator<List<Puzzle>> solutions = iterator(puzzles, goalState);
+        while (solutions.hasNext()) {
+            callback.accept(boards.next(), solutions.next());
+        }
+    }
+
+    // Solutions in input order, computed on demand
+    public Iterator<List<Puzzle>> iterator(Collection<Puzzle> puzzles, int[][] goalState) {
+        Iterator<Puzzle> boards = puzzles.iterator();
+        boolean useTable = goalState.length == EightPuzzleSolver.SIZE
+                && (puzzles.size() >= TABLE_THRESHOLD || EightPuzzleTable.exists(goalState));
+        return new Iterator<>() {
+            private EightPuzzleTable table; // built when the first board is asked for
+            private PuzzleSolver solver;
+            private final Map<Long, List<Puzzle>> solved = new HashMap<>(); // packed board -> solution
+
+            @Override
+            public boolean hasNext() {
+                return boards.hasNext();
+            }
+
+            @Override
+            public List<Puzzle> next() {
+                if (!boards.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Puzzle puzzle = boards.next();
+                if (useTable) {
+                    if (table == null) {
+                        table = EightPuzzleTable.forGoal(goalState);
+                    }
+                    return table.solve(puzzle);
+                }
+                if (!PackedState.fits(goalState.length)) {
+                    return solve(puzzle);
+                }
+                long key = PackedState.pack(puzzle.getState());
+                if (solved.containsKey(key)) {
+                    return solved.get(key);
+                }
+                List<Puzzle> solution = solve(puzzle);
+                solved.put(key, solution);
+                return solution;
+            }
+
+            private List<Puzzle> solve(Puzzle puzzle) {
+                if (solver == null) {
+                    solver = solverFactory.get();
+                }
+                AStarSearch.PuzzleNode goalNode = solver.solveStepByStep(puzzle, goalState, heuristicType);
+                return goalNode == null ? null : solver.reconstructPath(goalNode);
+            }
+        };
+    }
+}
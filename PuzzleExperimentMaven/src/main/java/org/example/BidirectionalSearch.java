@@ -0,0 +1,276 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bidirectional heuristic search that meets in the middle (MM, Holte et al. 2016)
+// One frontier grows from the start towards the goal, one from the goal towards the start, each with
+// its own heuristic (distance estimate to the other end). A node's priority is max(f, 2g), so neither
+// side goes deeper than half of the solution before the sides meet. The side with the smaller minimum
+// priority is expanded. Stops once the best path found through a meeting state, U, is not larger than
+// max(min priority, fmin forward, fmin backward, gmin forward + gmin backward + 1): no cheaper path can
+// be left, so the solution is optimal
+// States are PackedState longs (boards up to 4x4), heuristics Hamming or Manhattan
+public class BidirectionalSearch implements PuzzleSolver {
+    private static final int FORWARD = 0, BACKWARD = 1;
+
+    private int size;
+    private int[][] neighbours; // cell the blank moves to: Up, Down, Left, Right, -1 if off the board
+    private final Frontier[] frontiers = new Frontier[2];
+    private int expandedNodes;
+    private long peakNodes;
+
+    @Override
+    public AStarSearch.PuzzleNode solveStepByStep(Puzzle puzzle, int[][] goalState, String heuristicType) {
+        size = goalState.length;
+        int cells = size * size;
+        neighbours = new int[cells][4];
+        for (int cell = 0; cell < cells; cell++) {
+            int x = cell / size, y = cell % size;
+            neighbours[cell][0] = x > 0 ? cell - size : -1;
+            neighbours[cell][1] = x < size - 1 ? cell + size : -1;
+            neighbours[cell][2] = y > 0 ? cell - 1 : -1;
+            neighbours[cell][3] = y < size - 1 ? cell + 1 : -1;
+        }
+        long start = PackedState.pack(puzzle.getState());
+        long goal = PackedState.pack(goalState);
+        // forward estimates the distance to the goal, backward the distance to the start
+        frontiers[FORWARD] = new Frontier(tileCost(goal, heuristicType));
+        frontiers[BACKWARD] = new Frontier(tileCost(start, heuristicType));
+        expandedNodes = 0;
+        peakNodes = 0;
+
+        if (start == goal) {
+            return toPuzzleNodes(new Node(start, PackedState.findBlank(start, cells), 0, 0, null), null);
+        }
+        frontiers[FORWARD].add(new Node(start, PackedState.findBlank(start, cells), 0, frontiers[FORWARD].heuristic(start), null));
+        frontiers[BACKWARD].add(new Node(goal, PackedState.findBlank(goal, cells), 0, frontiers[BACKWARD].heuristic(goal), null));
+
+        int best = Integer.MAX_VALUE; // U, cost of the best path through a meeting state so far
+        Node meetForward = null, meetBackward = null;
+        while (!frontiers[FORWARD].isEmpty() && !frontiers[BACKWARD].isEmpty()) {
+            Frontier forward = frontiers[FORWARD], backward = frontiers[BACKWARD];
+            int minPriority = Math.min(forward.minPriority(), backward.minPriority());
+            int lowerBound = Math.max(Math.max(minPriority, forward.minF()),
+                    Math.max(backward.minF(), forward.minG() + backward.minG() + 1));
+            if (best <= lowerBound) {
+                break;
+            }
+
+            int direction = forward.minPriority() <= backward.minPriority() ? FORWARD : BACKWARD;
+            Frontier side = frontiers[direction], other = frontiers[1 - direction];
+            Node current = side.poll();
+            expandedNodes++;
+
+            for (int move = 0; move < 4; move++) {
+                int next = neighbours[current.blank][move];
+                if (next < 0) {
+                    continue;
+                }
+                long childState = PackedState.move(current.state, current.blank, next);
+                int g = current.g + 1;
+                Node known = side.get(childState);
+                if (known != null && known.g <= g) {
+                    continue;
+                }
+                int tile = PackedState.get(current.state, next);
+                int h = current.h - side.tileCost[tile][next] + side.tileCost[tile][current.blank];
+                Node child = new Node(childState, next, g, h, current);
+                side.add(child);
+
+                Node meeting = other.get(childState);
+                if (meeting != null && g + meeting.g < best) {
+                    best = g + meeting.g;
+                    meetForward = direction == FORWARD ? child : meeting;
+                    meetBackward = direction == FORWARD ? meeting : child;
+                }
+            }
+            peakNodes = Math.max(peakNodes, (long) forward.stored() + backward.stored());
+        }
+
+        return meetForward == null ? null : toPuzzleNodes(meetForward, meetBackward.parent);
+    }
+
+    @Override
+    public List<Puzzle> reconstructPath(AStarSearch.PuzzleNode goalNode) {
+        return AStarSearch.pathOf(goalNode);
+    }
+
+    @Override
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    // Nodes of both searches held in memory at the same time, at most
+    @Override
+    public long getPeakNodes() {
+        return peakNodes;
+    }
+
+    // start .. meeting state from the forward side, then the backward side's parents lead to the goal
+    private AStarSearch.PuzzleNode toPuzzleNodes(Node meetForward, Node backwardRest) {
+        List<Long> states = new ArrayList<>();
+        for (Node node = meetForward; node != null; node = node.parent) {
+            states.add(node.state);
+        }
+        Collections.reverse(states);
+        for (Node node = backwardRest; node != null; node = node.parent) {
+            states.add(node.state);
+        }
+        AStarSearch.PuzzleNode puzzleNode = null;
+        for (int g = 0; g < states.size(); g++) {
+            puzzleNode = new AStarSearch.PuzzleNode(states.get(g), size, g, 0, puzzleNode);
+        }
+        return puzzleNode;
+    }
+
+    // heuristic share of tile t on cell c, measured against the target board of one direction
+    private int[][] tileCost(long target, String heuristicType) {
+        int cells = size * size;
+        int[][] cost = new int[cells][cells];
+        for (int targetCell = 0; targetCell < cells; targetCell++) {
+            int tile = PackedState.get(target, targetCell);
+            for (int cell = 0; cell < cells && tile != 0; cell++) {
+                if ("Hamming".equals(heuristicType)) {
+                    cost[tile][cell] = cell == targetCell ? 0 : 1;
+                } else if ("Manhattan".equals(heuristicType)) {
+                    cost[tile][cell] = Math.abs(cell / size - targetCell / size) + Math.abs(cell % size - targetCell % size);
+                }
+            }
+        }
+        return cost;
+    }
+
+    // Search node of one direction
+    private static final class Node {
+        private final long state;
+        private final int blank;
+        private final int g;
+        private final int h;
+        private final Node parent;
+        private boolean open = true;
+
+        Node(long state, int blank, int g, int h, Node parent) {
+            this.state = state;
+            this.blank = blank;
+            this.g = g;
+            this.h = h;
+            this.parent = parent;
+        }
+
+        int priority() {
+            return Math.max(g + h, 2 * g);
+        }
+    }
+
+    // Open and closed list of one direction: best node per state, plus the open nodes bucketed by
+    // priority, f and g for the stopping condition; outdated entries are skipped when they surface
+    private final class Frontier {
+        private final int[][] tileCost;
+        private final Map<Long, Node> nodes = new HashMap<>(); // best node per state, open or closed
+        private final Buckets byPriority = new Buckets();
+        private final Buckets byF = new Buckets();
+        private final Buckets byG = new Buckets();
+
+        Frontier(int[][] tileCost) {
+            this.tileCost = tileCost;
+        }
+
+        int heuristic(long state) {
+            int h = 0;
+            for (int cell = 0; cell < size * size; cell++) {
+                h += tileCost[PackedState.get(state, cell)][cell];
+            }
+            return h;
+        }
+
+        Node get(long state) {
+            return nodes.get(state);
+        }
+
+        // new or better node for its state, a closed node with a worse g gets reopened this way
+        void add(Node node) {
+            Node old = nodes.put(node.state, node);
+            if (old != null) {
+                old.open = false;
+            }
+            byPriority.add(node.priority(), node);
+            byF.add(node.g + node.h, node);
+            byG.add(node.g, node);
+        }
+
+        Node poll() {
+            Node node = byPriority.poll();
+            node.open = false;
+            return node;
+        }
+
+        boolean isEmpty() {
+            return byPriority.min() == Integer.MAX_VALUE;
+        }
+
+        int minPriority() {
+            return byPriority.min();
+        }
+
+        int minF() {
+            return byF.min();
+        }
+
+        int minG() {
+            return byG.min();
+        }
+
+        int stored() {
+            return nodes.size();
+        }
+    }
+
+    // Nodes bucketed by a small integer key (LIFO per bucket), closed/replaced nodes are dropped lazily
+    private static final class Buckets {
+        private Node[][] buckets = new Node[64][];
+        private int[] counts = new int[64];
+        private int minKey = Integer.MAX_VALUE;
+
+        void add(int key, Node node) {
+            if (key >= buckets.length) {
+                buckets = Arrays.copyOf(buckets, Math.max(key + 1, buckets.length << 1));
+                counts = Arrays.copyOf(counts, buckets.length);
+            }
+            if (buckets[key] == null) {
+                buckets[key] = new Node[16];
+            } else if (counts[key] == buckets[key].length) {
+                buckets[key] = Arrays.copyOf(buckets[key], counts[key] << 1);
+            }
+            buckets[key][counts[key]++] = node;
+            minKey = Math.min(minKey, key);
+        }
+
+        // smallest key of an open node, Integer.MAX_VALUE if there is none
+        int min() {
+            while (minKey < buckets.length) {
+                Node[] bucket = buckets[minKey];
+                while (counts[minKey] > 0 && !bucket[counts[minKey] - 1].open) {
+                    bucket[--counts[minKey]] = null;
+                }
+                if (counts[minKey] > 0) {
+                    return minKey;
+                }
+                minKey++;
+            }
+            minKey = Integer.MAX_VALUE;
+            return minKey;
+        }
+
+        Node poll() {
+            int key = min();
+            Node node = buckets[key][--counts[key]];
+            buckets[key][counts[key]] = null;
+            return node;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Bucket queue: f and h are small integers, so instead of a heap every (f, h) pair gets its own stack
+// add and poll are O(1) apart from skipping empty buckets (bounded by the largest h)
+// Ties on f go to the lowest h (= deepest g, closest to the goal), inside a bucket last in first out,
+// which keeps the search diving on plateaus instead of expanding the whole plateau
+class BucketOpenList implements OpenList {
+    private AStarSearch.PuzzleNode[][][] buckets = new AStarSearch.PuzzleNode[64][][]; // [f][h] -> stack
+    private int[][] bucketSizes = new int[64][];
+    private int[] sizePerF = new int[64];
+    private int minF = Integer.MAX_VALUE; // no bucket below minF holds nodes
+    private int size;
+
+    @Override
+    public void add(AStarSearch.PuzzleNode node) {
+        int f = node.getF();
+        int h = node.getH();
+        if (f >= buckets.length) {
+            int capacity = Math.max(f + 1, buckets.length << 1);
+            buckets = Arrays.copyOf(buckets, capacity);
+            bucketSizes = Arrays.copyOf(bucketSizes, capacity);
+            sizePerF = Arrays.copyOf(sizePerF, capacity);
+        }
+        if (buckets[f] == null || h >= buckets[f].length) {
+            int capacity = Math.max(h + 1, buckets[f] == null ? 32 : buckets[f].length << 1);
+            buckets[f] = buckets[f] == null ? new AStarSearch.PuzzleNode[capacity][] : Arrays.copyOf(buckets[f], capacity);
+            bucketSizes[f] = bucketSizes[f] == null ? new int[capacity] : Arrays.copyOf(bucketSizes[f], capacity);
+        }
+        AStarSearch.PuzzleNode[] stack = buckets[f][h];
+        int count = bucketSizes[f][h];
+        if (stack == null) {
+            stack = buckets[f][h] = new AStarSearch.PuzzleNode[16];
+        } else if (count == stack.length) {
+            stack = buckets[f][h] = Arrays.copyOf(stack, count << 1);
+        }
+        stack[count] = node;
+        bucketSizes[f][h] = count + 1;
+        sizePerF[f]++;
+        size++;
+        if (f < minF) {
+            minF = f; // only happens with an inconsistent heuristic
+        }
+    }
+
+    @Override
+    public AStarSearch.PuzzleNode poll() {
+        if (size == 0) {
+            return null;
+        }
+        while (sizePerF[minF] == 0) {
+            minF++;
+        }
+        int[] sizes = bucketSizes[minF];
+        int h = 0;
+        while (sizes[h] == 0) {
+            h++;
+        }
+        AStarSearch.PuzzleNode[] stack = buckets[minF][h];
+        AStarSearch.PuzzleNode node = stack[--sizes[h]];
+        stack[sizes[h]] = null; // let the node go once it is expanded
+        sizePerF[minF]--;
+        size--;
+        return node;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
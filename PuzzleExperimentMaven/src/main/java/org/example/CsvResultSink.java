@@ -0,0 +1,46 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+
+// Plain CSV result file, rows go through a buffered writer straight to disk
+// every flush() (checkpoint) leaves a complete, readable file behind
+public class CsvResultSink implements ResultSink {
+    private final String fileName;
+    private final BufferedWriter writer;
+
+    public CsvResultSink(String fileName) throws IOException {
+        this.fileName = fileName;
+        this.writer = Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8);
+        writer.write(String.join(",", COLUMNS));
+        writer.newLine();
+    }
+
+    @Override
+    public void append(Map<String, Object> row) throws IOException {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = String.valueOf(row.get(COLUMNS[i]));
+            // labels like "Manhattan (packed, bucket queue)" contain commas
+            writer.write(value.indexOf(',') >= 0 ? "\"" + value.replace("\"", "\"\"") + "\"" : value);
+        }
+        writer.newLine();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+        System.out.println("Data exported to " + fileName);
+    }
+}
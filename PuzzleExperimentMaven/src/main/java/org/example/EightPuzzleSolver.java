@@ -0,0 +1,327 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// A* specialised for the 3x3 board (8-puzzle)
+// Only 9!/2 = 181,440 states are reachable from a start, so every state gets a fixed index (perfect hash):
+//   index = blank cell * 8!/2 + (Lehmer rank of the 8 tiles in reading order) / 2
+// Ranks 2k and 2k+1 only differ by a swap of the last two tiles, i.e. by the inversion parity,
+// so exactly one of them is reachable from the start and halving the rank loses nothing
+// Closed list = bitset, best g + move that reached the state = one byte per index, open list = heap of longs
+// -> about 200 KB per solver and nothing allocated per node, so solvers can be reused (forCurrentThread())
+public class EightPuzzleSolver implements PuzzleSolver {
+    public static final int SIZE = 3;
+    public static final int CELLS = SIZE * SIZE;
+    public static final int TILE_PERMUTATIONS = 20160; // 8!/2
+    public static final int STATE_COUNT = CELLS * TILE_PERMUTATIONS; // 181,440
+
+    // (7-i)!, weight of the i-th Lehmer digit
+    private static final int[] FACTORIAL = {5040, 720, 120, 24, 6, 2, 1, 1};
+    // SELECT[mask][n] = position of the n-th set bit of an 8 bit mask, keeps unranking O(n)
+    private static final byte[][] SELECT = new byte[256][8];
+    // Cell the blank moves to: Up, Down, Left, Right (same order as AStarSearch), -1 if off the board
+    // the opposite of move d is d ^ 1
+    static final int[][] NEIGHBOURS = new int[CELLS][4];
+
+    private static final int G_MASK = 0x3F; // lower 6 bits: best g, upper 2 bits: move that reached the state
+    private static final int UNSEEN = G_MASK;
+
+    private static final ThreadLocal<EightPuzzleSolver> POOL = ThreadLocal.withInitial(EightPuzzleSolver::new);
+
+    static {
+        for (int mask = 0; mask < 256; mask++) {
+            int n = 0;
+            for (int bit = 0; bit < 8; bit++) {
+                if ((mask & (1 << bit)) != 0) {
+                    SELECT[mask][n++] = (byte) bit;
+                }
+            }
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            int x = cell / SIZE, y = cell % SIZE;
+            NEIGHBOURS[cell][0] = x > 0 ? cell - SIZE : -1;
+            NEIGHBOURS[cell][1] = x < SIZE - 1 ? cell + SIZE : -1;
+            NEIGHBOURS[cell][2] = y > 0 ? cell - 1 : -1;
+            NEIGHBOURS[cell][3] = y < SIZE - 1 ? cell + 1 : -1;
+        }
+    }
+
+    private final long[] closed = new long[(STATE_COUNT + 63) / 64];
+    private final byte[] bestG = new byte[STATE_COUNT];
+    private final int[][] tileCost = new int[CELLS][CELLS]; // heuristic share of tile t on cell c
+    private final int[] board = new int[CELLS]; // scratch board for expanding
+    private long[] heap = new long[1024]; // entries: f << 40 | h << 32 | index, smallest f then h first
+    private int heapSize;
+    private int parity;
+    private int expandedNodes;
+    private long peakNodes; // heap entries + closed states, at most
+
+    // Solver owned by the calling thread, reset on every solve
+    public static EightPuzzleSolver forCurrentThread() {
+        return POOL.get();
+    }
+
+    @Override
+    public AStarSearch.PuzzleNode solveStepByStep(Puzzle puzzle, int[][] goalState, String heuristicType) {
+        if (puzzle.getState().length != SIZE || goalState.length != SIZE) {
+            throw new IllegalArgumentException("EightPuzzleSolver only solves 3x3 boards");
+        }
+        reset();
+        int[] goal = flatten(goalState);
+        flattenInto(puzzle.getState(), board);
+        parity = tileParity(board);
+        if (tileParity(goal) != parity) {
+            return null; // other half of the state space, goal not reachable
+        }
+        fillTileCost(goal, heuristicType);
+
+        int startIndex = rank(board);
+        int goalIndex = rank(goal);
+        int startH = heuristic(board);
+        bestG[startIndex] = 0;
+        push(startH, startH, startIndex);
+
+        while (heapSize > 0) {
+            long entry = pop();
+            int index = (int) entry;
+            int h = (int) (entry >>> 32) & 0xFF;
+            int g = (int) (entry >>> 40) - h;
+            // best-g check instead of decrease-key: older, worse copies of a state are just dropped
+            if (isClosed(index) || g != (bestG[index] & G_MASK)) {
+                continue;
+            }
+            closed[index >>> 6] |= 1L << index;
+
+            if (index == goalIndex) {
+                return buildPath(goal, startIndex, goalIndex);
+            }
+
+            unrank(index, board);
+            int blank = index / TILE_PERMUTATIONS;
+            for (int move = 0; move < 4; move++) {
+                int next = NEIGHBOURS[blank][move];
+                if (next < 0) {
+                    continue;
+                }
+                int tile = board[next];
+                board[blank] = tile;
+                board[next] = 0;
+                int child = rank(board);
+                board[next] = tile;
+                board[blank] = 0;
+
+                int childG = g + 1;
+                if (isClosed(child) || childG >= (bestG[child] & G_MASK)) {
+                    continue;
+                }
+                bestG[child] = (byte) (move << 6 | childG);
+                // only the moved tile changes its share of h
+                int childH = h - tileCost[tile][next] + tileCost[tile][blank];
+                push(childG + childH, childH, child);
+            }
+
+            expandedNodes++;
+            peakNodes = Math.max(peakNodes, (long) heapSize + expandedNodes);
+        }
+
+        return null;
+    }
+
+    @Override
+    public List<Puzzle> reconstructPath(AStarSearch.PuzzleNode goalNode) {
+        return AStarSearch.pathOf(goalNode);
+    }
+
+    @Override
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    @Override
+    public long getPeakNodes() {
+        return peakNodes;
+    }
+
+    // Perfect hash of a 3x3 board (flat, row by row), O(n) thanks to bitCount over the used tiles
+    public static int rank(int[] board) {
+        int used = 0, lehmer = 0, blank = 0, i = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int tile = board[cell] - 1;
+            if (tile < 0) {
+                blank = cell;
+                continue;
+            }
+            // Lehmer digit = number of smaller tiles that are still to come
+            lehmer += (tile - Integer.bitCount(used & ((1 << tile) - 1))) * FACTORIAL[i++];
+            used |= 1 << tile;
+        }
+        return blank * TILE_PERMUTATIONS + (lehmer >> 1);
+    }
+
+    // Inverse of rank, parity (0 even, 1 odd tile inversions) picks which of the two halves is meant
+    public static void unrank(int index, int parity, int[] board) {
+        int blank = index / TILE_PERMUTATIONS;
+        int lehmer = (index % TILE_PERMUTATIONS) << 1;
+        int unused = 0xFF;
+        int inversions = 0;
+        int i = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cell == blank) {
+                board[cell] = 0;
+                continue;
+            }
+            int digit = lehmer / FACTORIAL[i];
+            lehmer %= FACTORIAL[i++];
+            inversions += digit;
+            int tile = SELECT[unused][digit];
+            unused &= ~(1 << tile);
+            board[cell] = tile + 1;
+        }
+        if ((inversions & 1) != parity) {
+            // it was rank 2k+1: swap the last two tiles
+            int last = blank == CELLS - 1 ? CELLS - 2 : CELLS - 1;
+            int beforeLast = blank >= CELLS - 2 ? CELLS - 3 : CELLS - 2;
+            int tile = board[last];
+            board[last] = board[beforeLast];
+            board[beforeLast] = tile;
+        }
+    }
+
+    // Parity of the inversions between the tiles (blank ignored), same for all states reachable from each other
+    public static int tileParity(int[] board) {
+        int used = 0, inversions = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int tile = board[cell] - 1;
+            if (tile >= 0) {
+                inversions += tile - Integer.bitCount(used & ((1 << tile) - 1));
+                used |= 1 << tile;
+            }
+        }
+        return inversions & 1;
+    }
+
+    private void unrank(int index, int[] target) {
+        unrank(index, parity, target);
+    }
+
+    private boolean isClosed(int index) {
+        return (closed[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private void reset() {
+        Arrays.fill(closed, 0L);
+        Arrays.fill(bestG, (byte) UNSEEN);
+        heapSize = 0;
+        expandedNodes = 0;
+        peakNodes = 0;
+    }
+
+    // Hamming/Manhattan per tile and cell, measured against the given goal layout
+    private void fillTileCost(int[] goal, String heuristicType) {
+        for (int[] row : tileCost) {
+            Arrays.fill(row, 0);
+        }
+        for (int goalCell = 0; goalCell < CELLS; goalCell++) {
+            int tile = goal[goalCell];
+            if (tile == 0) {
+                continue;
+            }
+            for (int cell = 0; cell < CELLS; cell++) {
+                if ("Hamming".equals(heuristicType)) {
+                    tileCost[tile][cell] = cell == goalCell ? 0 : 1;
+                } else if ("Manhattan".equals(heuristicType)) {
+                    tileCost[tile][cell] = Math.abs(cell / SIZE - goalCell / SIZE) + Math.abs(cell % SIZE - goalCell % SIZE);
+                }
+            }
+        }
+    }
+
+    private int heuristic(int[] state) {
+        int h = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            h += tileCost[state[cell]][cell];
+        }
+        return h;
+    }
+
+    // Walks the stored moves back from the goal, PuzzleNodes are only created for the solution path
+    private AStarSearch.PuzzleNode buildPath(int[] goal, int startIndex, int goalIndex) {
+        List<int[]> boards = new ArrayList<>();
+        int[] current = goal.clone();
+        int index = goalIndex;
+        boards.add(current.clone());
+        while (index != startIndex) {
+            int move = (bestG[index] & 0xFF) >>> 6;
+            int blank = index / TILE_PERMUTATIONS;
+            int previousBlank = NEIGHBOURS[blank][move ^ 1]; // undo the move
+            current[blank] = current[previousBlank];
+            current[previousBlank] = 0;
+            index = rank(current);
+            boards.add(current.clone());
+        }
+        Collections.reverse(boards);
+
+        AStarSearch.PuzzleNode node = null;
+        for (int g = 0; g < boards.size(); g++) {
+            int[] flat = boards.get(g);
+            int[][] state = new int[SIZE][SIZE];
+            for (int i = 0; i < SIZE; i++) {
+                System.arraycopy(flat, i * SIZE, state[i], 0, SIZE);
+            }
+            node = new AStarSearch.PuzzleNode(state, g, heuristic(flat), node);
+        }
+        return node;
+    }
+
+    private void push(int f, int h, int index) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize << 1);
+        }
+        long entry = (long) f << 40 | (long) h << 32 | index;
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= entry) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    private static int[] flatten(int[][] state) {
+        int[] flat = new int[CELLS];
+        flattenInto(state, flat);
+        return flat;
+    }
+
+    private static void flattenInto(int[][] state, int[] flat) {
+        for (int i = 0; i < SIZE; i++) {
+            System.arraycopy(state[i], 0, flat, i * SIZE, SIZE);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Complete solution table of the 3x3 board for one goal: a single backward breadth first search from the goal
+// over all 9!/2 = 181,440 reachable states (EightPuzzleSolver perfect hash as index)
+// One byte per state: lower 5 bits = distance to the goal (at most 31), bits 5-6 = move of the blank
+// (Up, Down, Left, Right) that leads one step closer. Any board is then solved optimally by walking the
+// table, O(depth), no search. Built in about 130 ms, 177 KB, cached per goal and read only afterwards,
+// so all threads can share it
+public class EightPuzzleTable {
+    private static final int UNSEEN = 0xFF;
+    private static final Map<Long, EightPuzzleTable> TABLES = new ConcurrentHashMap<>();
+
+    private final int[] goal;
+    private final int parity;
+    private final byte[] table = new byte[EightPuzzleSolver.STATE_COUNT];
+
+    private EightPuzzleTable(int[] goal) {
+        this.goal = goal;
+        this.parity = EightPuzzleSolver.tileParity(goal);
+        build();
+    }
+
+    // Table for the goal, built on first use
+    public static EightPuzzleTable forGoal(int[][] goalState) {
+        if (goalState.length != EightPuzzleSolver.SIZE) {
+            throw new IllegalArgumentException("EightPuzzleTable only covers 3x3 boards");
+        }
+        return TABLES.computeIfAbsent(PackedState.pack(goalState), key -> new EightPuzzleTable(flatten(goalState)));
+    }
+
+    // true if forGoal would not have to build anything
+    public static boolean exists(int[][] goalState) {
+        return goalState.length == EightPuzzleSolver.SIZE && TABLES.containsKey(PackedState.pack(goalState));
+    }
+
+    // Optimal number of moves to the goal, -1 if the goal can not be reached
+    public int distance(int[][] state) {
+        int[] board = flatten(state);
+        if (EightPuzzleSolver.tileParity(board) != parity) {
+            return -1;
+        }
+        return table[EightPuzzleSolver.rank(board)] & 0x1F;
+    }
+
+    // Perfect hash indices (EightPuzzleSolver.rank) of all states exactly that many moves away from the goal,
+    // ascending; EightPuzzleSolver.unrank(index, getParity(), board) turns them back into boards
+    public int[] statesAt(int distance) {
+        int count = 0;
+        for (byte entry : table) {
+            if ((entry & 0xFF) != UNSEEN && (entry & 0x1F) == distance) {
+                count++;
+            }
+        }
+        int[] states = new int[count];
+        count = 0;
+        for (int index = 0; index < table.length; index++) {
+            if ((table[index] & 0xFF) != UNSEEN && (table[index] & 0x1F) == distance) {
+                states[count++] = index;
+            }
+        }
+        return states;
+    }
+
+    // Tile inversion parity of the goal, the half of the state space the table covers
+    public int getParity() {
+        return parity;
+    }
+
+    // Optimal solution steps from the board to the goal (like reconstructPath), null if there is none
+    public List<Puzzle> solve(Puzzle puzzle) {
+        int[] board = flatten(puzzle.getState());
+        if (EightPuzzleSolver.tileParity(board) != parity) {
+            return null;
+        }
+        int index = EightPuzzleSolver.rank(board);
+        int blank = index / EightPuzzleSolver.TILE_PERMUTATIONS;
+        int distance = table[index] & 0x1F;
+        List<Puzzle> path = new ArrayList<>(distance + 1);
+        path.add(new Puzzle(toState(board)));
+        for (int step = 0; step < distance; step++) {
+            int next = EightPuzzleSolver.NEIGHBOURS[blank][(table[index] >>> 5) & 3];
+            board[blank] = board[next];
+            board[next] = 0;
+            blank = next;
+            index = EightPuzzleSolver.rank(board);
+            path.add(new Puzzle(toState(board)));
+        }
+        return path;
+    }
+
+    // Backward BFS: a state reached from s by blank move d gets back to s by the opposite move d ^ 1
+    private void build() {
+        Arrays.fill(table, (byte) UNSEEN);
+        int[] queue = new int[EightPuzzleSolver.STATE_COUNT];
+        int head = 0, tail = 0;
+        int start = EightPuzzleSolver.rank(goal);
+        table[start] = 0;
+        queue[tail++] = start;
+        int[] board = new int[EightPuzzleSolver.CELLS];
+        while (head < tail) {
+            int index = queue[head++];
+            int distance = table[index] & 0x1F;
+            EightPuzzleSolver.unrank(index, parity, board);
+            int blank = index / EightPuzzleSolver.TILE_PERMUTATIONS;
+            for (int move = 0; move < 4; move++) {
+                int next = EightPuzzleSolver.NEIGHBOURS[blank][move];
+                if (next < 0) {
+                    continue;
+                }
+                board[blank] = board[next];
+                board[next] = 0;
+                int child = EightPuzzleSolver.rank(board);
+                board[next] = board[blank];
+                board[blank] = 0;
+                if ((table[child] & 0xFF) == UNSEEN) {
+                    table[child] = (byte) ((move ^ 1) << 5 | (distance + 1));
+                    queue[tail++] = child;
+                }
+            }
+        }
+    }
+
+    private static int[] flatten(int[][] state) {
+        int[] flat = new int[EightPuzzleSolver.CELLS];
+        for (int i = 0; i < EightPuzzleSolver.SIZE; i++) {
+            System.arraycopy(state[i], 0, flat, i * EightPuzzleSolver.SIZE, EightPuzzleSolver.SIZE);
+        }
+        return flat;
+    }
+
+    private static int[][] toState(int[] flat) {
+        int[][] state = new int[EightPuzzleSolver.SIZE][EightPuzzleSolver.SIZE];
+        for (int i = 0; i < EightPuzzleSolver.SIZE; i++) {
+            System.arraycopy(flat, i * EightPuzzleSolver.SIZE, state[i], 0, EightPuzzleSolver.SIZE);
+        }
+        return state;
+    }
+}
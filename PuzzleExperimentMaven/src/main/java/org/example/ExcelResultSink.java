@@ -0,0 +1,62 @@
+package org.example;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+// Excel result file written with POI's streaming SXSSFWorkbook: only the last ROW_WINDOW rows stay in memory,
+// older ones go to a temp file, the .xlsx itself is written once on close
+public class ExcelResultSink implements ResultSink {
+    private static final int ROW_WINDOW = 100;
+
+    private final String fileName;
+    private final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+    private final Sheet sheet;
+    private int rowNum = 1;
+
+    public ExcelResultSink(String fileName) {
+        this.fileName = fileName;
+        this.sheet = workbook.createSheet("Puzzle Experiment20");
+
+        // Create header row
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            header.createCell(i).setCellValue(COLUMNS[i]);
+        }
+    }
+
+    @Override
+    public void append(Map<String, Object> rowData) {
+        Row row = sheet.createRow(rowNum++);
+        row.createCell(0).setCellValue((String) rowData.get("Heuristic"));
+        row.createCell(1).setCellValue((String) rowData.get("ExecutionTime (ms)"));
+        row.createCell(2).setCellValue((Long) rowData.get("AllocatedBytes"));
+        row.createCell(3).setCellValue((Integer) rowData.get("NodesExpanded"));
+        row.createCell(4).setCellValue((Integer) rowData.get("SolutionDepth"));
+        row.createCell(5).setCellValue((Double) rowData.get("EBF"));
+        row.createCell(6).setCellValue((Long) rowData.get("PeakNodes"));
+        row.createCell(7).setCellValue((Integer) rowData.get("Bucket"));
+    }
+
+    // An xlsx can only be written once, so a checkpoint moves the rows in memory to the temp file
+    @Override
+    public void flush() throws IOException {
+        ((SXSSFSheet) sheet).flushRows();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (FileOutputStream fileOut = new FileOutputStream(fileName)) {
+            workbook.write(fileOut);
+        } finally {
+            workbook.dispose(); // deletes the temp file
+            workbook.close();
+        }
+        System.out.println("Data exported to " + fileName);
+    }
+}
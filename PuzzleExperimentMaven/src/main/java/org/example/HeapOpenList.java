@@ -0,0 +1,28 @@
+package org.example;
+
+import java.util.PriorityQueue;
+
+// Open list, represented by Priority queue, natural ordering (f value) of PuzzleNode
+class HeapOpenList implements OpenList {
+    private final PriorityQueue<AStarSearch.PuzzleNode> queue = new PriorityQueue<>();
+
+    @Override
+    public void add(AStarSearch.PuzzleNode node) {
+        queue.add(node);
+    }
+
+    @Override
+    public AStarSearch.PuzzleNode poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+}
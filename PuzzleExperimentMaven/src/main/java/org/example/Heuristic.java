@@ -0,0 +1,41 @@
+package org.example;
+
+// Heuristic strategy: resolved once per solve from the heuristic name, instead of comparing strings per node
+// Cells are numbered row by row (cell = row * size + column)
+public interface Heuristic {
+    String[] NAMES = {"Hamming", "Manhattan", "LinearConflict", "WalkingDistance", "PatternDatabase"};
+
+    // Full evaluation of a board
+    int evaluate(int[][] state);
+
+    // Value after one move: tile slid from cell from onto the empty cell to, h = value before the move,
+    // state already shows the move
+    int update(int[][] state, int h, int tile, int from, int to);
+
+    // "Hamming", "Manhattan", "LinearConflict", "WalkingDistance", "PatternDatabase";
+    // anything else gives 0 everywhere (uniform cost search)
+    static Heuristic resolve(String heuristicType, int[][] goalState) {
+        if ("PatternDatabase".equals(heuristicType)) {
+            return new PatternDatabaseHeuristic(goalState);
+        } else if ("WalkingDistance".equals(heuristicType)) {
+            return new WalkingDistanceHeuristic(goalState);
+        } else if ("LinearConflict".equals(heuristicType)) {
+            return new LinearConflictHeuristic(goalState);
+        } else if ("Manhattan".equals(heuristicType)) {
+            return TileCostHeuristic.manhattan(goalState);
+        } else if ("Hamming".equals(heuristicType)) {
+            return TileCostHeuristic.hamming(goalState);
+        }
+        return TileCostHeuristic.zero(goalState.length);
+    }
+
+    // false if resolve() would fail for that board size: the table based heuristics only exist for small boards
+    static boolean supports(String heuristicType, int size) {
+        if ("PatternDatabase".equals(heuristicType)) {
+            return PatternDatabase.supports(size);
+        } else if ("WalkingDistance".equals(heuristicType)) {
+            return WalkingDistanceHeuristic.supports(size);
+        }
+        return true;
+    }
+}
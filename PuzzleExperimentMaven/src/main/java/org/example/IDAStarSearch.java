@@ -0,0 +1,261 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Iterative deepening A* (IDA*): depth first search cut off at f > bound, bound raised to the
+// smallest f that got cut off, until the goal is found
+// Only one board is kept and changed in place (move, search deeper, undo), h is updated with the
+// moved tile only, and the move undoing the previous one is never tried
+// -> memory is O(depth), which is what makes 4x4 (15-puzzle) boards feasible
+// Heuristics: Hamming, Manhattan, PatternDatabase (updated with the pattern of the moved tile only),
+// WalkingDistance (its row and column codes kept with the board, a move changes one of them),
+// any other Heuristic strategy (LinearConflict) through its update on a 2D copy of the board
+public class IDAStarSearch implements PuzzleSolver {
+    private static final int FOUND = -1;
+
+    private int size;
+    private int[] board; // the one board of the search
+    private int[] goal;
+    private int blank; // cell of 0 on board
+    private int[][] neighbours; // cell the blank moves to: Up, Down, Left, Right, -1 if off the board
+    private int[][] tileCost; // heuristic share of tile t on cell c
+    private int[] moves; // moves of the current branch, moves[g] = move done at depth g
+    private PatternDatabase patternDatabase; // only for the "PatternDatabase" heuristic
+    private int[] tilePosition; // tile -> cell, kept in sync with board for pattern lookups
+    private int[] patternValue; // current table value of each pattern
+    private WalkingDistanceHeuristic walkingDistance; // only for the "WalkingDistance" heuristic
+    private long rowCode; // count matrices of board, kept in sync for the walking distance
+    private long columnCode;
+    private Heuristic strategy; // for the other heuristics
+    private int[][] rows; // board as rows, kept in sync for the strategy
+    private long expandedNodes;
+    private int peakNodes; // deepest branch, the only nodes ever held
+
+    @Override
+    public AStarSearch.PuzzleNode solveStepByStep(Puzzle puzzle, int[][] goalState, String heuristicType) {
+        init(puzzle.getState(), goalState, heuristicType);
+        expandedNodes = 0;
+        peakNodes = 0;
+        if (!Puzzle.isSolvable(board, goal, size)) {
+            return null; // no bound would ever find it
+        }
+
+        int[] start = board.clone();
+        int h = heuristic();
+        int bound = h;
+        while (true) {
+            if (moves.length <= bound) {
+                moves = new int[bound + 1];
+            }
+            int result = search(0, h, bound, -1);
+            if (result == FOUND) {
+                return buildPath(start);
+            }
+            bound = result;
+        }
+    }
+
+    @Override
+    public List<Puzzle> reconstructPath(AStarSearch.PuzzleNode goalNode) {
+        return AStarSearch.pathOf(goalNode);
+    }
+
+    @Override
+    public int getExpandedNodes() {
+        return (int) Math.min(expandedNodes, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long getPeakNodes() {
+        return peakNodes;
+    }
+
+    // Returns FOUND, or the smallest f above bound seen below this node
+    private int search(int g, int h, int bound, int previousMove) {
+        int f = g + h;
+        if (f > bound) {
+            return f;
+        }
+        if (h == 0 && Arrays.equals(board, goal)) {
+            moves[g] = -1; // end of the path
+            return FOUND;
+        }
+        expandedNodes++;
+        if (g >= peakNodes) {
+            peakNodes = g + 1;
+        }
+
+        int min = Integer.MAX_VALUE;
+        int from = blank;
+        for (int move = 0; move < 4; move++) {
+            int next = neighbours[from][move];
+            if (next < 0 || move == (previousMove ^ 1)) { // off the board or undoing the last move
+                continue;
+            }
+            int tile = board[next];
+            int childH;
+            int pattern = -1, oldValue = 0;
+            long oldRowCode = rowCode, oldColumnCode = columnCode;
+            if (patternDatabase != null) {
+                // only the pattern of the moved tile changes
+                pattern = patternDatabase.patternOf(tile);
+                oldValue = patternValue[pattern];
+                tilePosition[tile] = from;
+                patternValue[pattern] = patternDatabase.value(pattern, tilePosition);
+                childH = h - oldValue + patternValue[pattern];
+            } else if (walkingDistance != null) {
+                if (move < 2) { // up or down: only the row counts change
+                    rowCode = walkingDistance.moved(rowCode, tile, next, from);
+                } else {
+                    columnCode = walkingDistance.moved(columnCode, tile, next, from);
+                }
+                childH = walkingDistance.distance(rowCode, columnCode);
+            } else if (strategy != null) {
+                rows[from / size][from % size] = tile;
+                rows[next / size][next % size] = 0;
+                childH = strategy.update(rows, h, tile, next, from);
+            } else {
+                childH = h - tileCost[tile][next] + tileCost[tile][from];
+            }
+            board[from] = tile;
+            board[next] = 0;
+            blank = next;
+            moves[g] = move;
+
+            int result = search(g + 1, childH, bound, move);
+            if (result == FOUND) {
+                return FOUND;
+            }
+
+            board[next] = tile;
+            board[from] = 0;
+            blank = from;
+            if (pattern >= 0) {
+                tilePosition[tile] = next;
+                patternValue[pattern] = oldValue;
+            } else if (walkingDistance != null) {
+                rowCode = oldRowCode;
+                columnCode = oldColumnCode;
+            } else if (strategy != null) {
+                rows[next / size][next % size] = tile;
+                rows[from / size][from % size] = 0;
+            }
+            if (result < min) {
+                min = result;
+            }
+        }
+        return min;
+    }
+
+    private void init(int[][] state, int[][] goalState, String heuristicType) {
+        size = state.length;
+        int cells = size * size;
+        board = new int[cells];
+        goal = new int[cells];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(state[i], 0, board, i * size, size);
+            System.arraycopy(goalState[i], 0, goal, i * size, size);
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            if (board[cell] == 0) {
+                blank = cell;
+            }
+        }
+
+        neighbours = new int[cells][4];
+        tileCost = new int[cells][cells];
+        for (int cell = 0; cell < cells; cell++) {
+            int x = cell / size, y = cell % size;
+            neighbours[cell][0] = x > 0 ? cell - size : -1;
+            neighbours[cell][1] = x < size - 1 ? cell + size : -1;
+            neighbours[cell][2] = y > 0 ? cell - 1 : -1;
+            neighbours[cell][3] = y < size - 1 ? cell + 1 : -1;
+        }
+        for (int goalCell = 0; goalCell < cells; goalCell++) {
+            int tile = goal[goalCell];
+            for (int cell = 0; cell < cells && tile != 0; cell++) {
+                if ("Hamming".equals(heuristicType)) {
+                    tileCost[tile][cell] = cell == goalCell ? 0 : 1;
+                } else if ("Manhattan".equals(heuristicType)) {
+                    tileCost[tile][cell] = Math.abs(cell / size - goalCell / size) + Math.abs(cell % size - goalCell % size);
+                }
+            }
+        }
+        moves = new int[64];
+
+        walkingDistance = null;
+        if ("WalkingDistance".equals(heuristicType)) {
+            walkingDistance = new WalkingDistanceHeuristic(goalState);
+            rowCode = walkingDistance.rowCode(state);
+            columnCode = walkingDistance.columnCode(state);
+        }
+
+        strategy = null;
+        if (!"Hamming".equals(heuristicType) && !"Manhattan".equals(heuristicType)
+                && !"PatternDatabase".equals(heuristicType) && walkingDistance == null) {
+            strategy = Heuristic.resolve(heuristicType, goalState);
+            rows = new int[size][];
+            for (int i = 0; i < size; i++) {
+                rows[i] = state[i].clone();
+            }
+        }
+
+        patternDatabase = null;
+        if ("PatternDatabase".equals(heuristicType)) {
+            patternDatabase = PatternDatabase.forSize(size);
+            if (!patternDatabase.matches(goalState)) {
+                throw new IllegalArgumentException("Pattern database was built for a different goal state");
+            }
+            tilePosition = new int[cells];
+            for (int cell = 0; cell < cells; cell++) {
+                tilePosition[board[cell]] = cell;
+            }
+            patternValue = new int[patternDatabase.getPatternCount()];
+            for (int p = 0; p < patternValue.length; p++) {
+                patternValue[p] = patternDatabase.value(p, tilePosition);
+            }
+        }
+    }
+
+    private int heuristic() {
+        if (patternDatabase != null) {
+            return Arrays.stream(patternValue).sum();
+        } else if (walkingDistance != null) {
+            return walkingDistance.distance(rowCode, columnCode);
+        } else if (strategy != null) {
+            return strategy.evaluate(rows);
+        }
+        int h = 0;
+        for (int cell = 0; cell < board.length; cell++) {
+            h += tileCost[board[cell]][cell];
+        }
+        return h;
+    }
+
+    // Replays the moves of the found branch from the start, PuzzleNodes only for the solution path
+    private AStarSearch.PuzzleNode buildPath(int[] start) {
+        int[] current = start.clone();
+        int currentBlank = 0;
+        while (current[currentBlank] != 0) {
+            currentBlank++;
+        }
+        AStarSearch.PuzzleNode node = new AStarSearch.PuzzleNode(toState(current), 0, 0, null);
+        for (int g = 0; moves[g] >= 0; g++) {
+            int next = neighbours[currentBlank][moves[g]];
+            current[currentBlank] = current[next];
+            current[next] = 0;
+            currentBlank = next;
+            node = new AStarSearch.PuzzleNode(toState(current), g + 1, 0, node);
+        }
+        return node;
+    }
+
+    private int[][] toState(int[] flat) {
+        int[][] state = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(flat, i * size, state[i], 0, size);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+// Manhattan distance plus linear conflicts (Hansson, Mayer, Yung 1992), for any goal layout
+// Tiles in their goal row (column) but in the wrong order: some of them have to step out of the line and back,
+// 2 moves per tile that Manhattan does not count. Per line 2 * (tiles of the line - longest run in goal order),
+// the fewest tiles that have to step aside. Rows only need vertical moves for that, columns horizontal ones,
+// so both add up and h stays admissible
+// Conflicts come from a table indexed by the contents of a line: per cell the tile's place in the line's goal
+// (1..size), 0 for the blank and tiles of other lines, base size + 1 -> 625 entries for 4x4, 117,649 for 6x6;
+// larger boards count the conflicts directly
+// A move changes the moved tile's Manhattan share and the two lines it crossed only: a vertical move keeps the
+// order in its column but changes both rows, a horizontal move the two columns
+public class LinearConflictHeuristic implements Heuristic {
+    private static final int MAX_TABLE_SIZE = 6;
+
+    private final int size;
+    private final TileCostHeuristic manhattan;
+    private final int[] goalRow; // per tile
+    private final int[] goalColumn;
+    private final byte[] conflicts; // [line code], null above MAX_TABLE_SIZE
+
+    public LinearConflictHeuristic(int[][] goalState) {
+        size = goalState.length;
+        manhattan = TileCostHeuristic.manhattan(goalState);
+        goalRow = new int[size * size];
+        goalColumn = new int[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                goalRow[goalState[i][j]] = i;
+                goalColumn[goalState[i][j]] = j;
+            }
+        }
+        if (size <= MAX_TABLE_SIZE) {
+            int codes = (int) Math.pow(size + 1, size);
+            conflicts = new byte[codes];
+            for (int code = 0; code < codes; code++) {
+                conflicts[code] = (byte) conflictsOf(code);
+            }
+        } else {
+            conflicts = null;
+        }
+    }
+
+    @Override
+    public int evaluate(int[][] state) {
+        int h = manhattan.evaluate(state);
+        for (int line = 0; line < size; line++) {
+            h += lineConflicts(state, true, line, -1, -1) + lineConflicts(state, false, line, -1, -1);
+        }
+        return h;
+    }
+
+    @Override
+    public int update(int[][] state, int h, int tile, int from, int to) {
+        h += manhattan.cost(tile, to) - manhattan.cost(tile, from);
+        boolean vertical = from / size != to / size; // rows change, otherwise the columns
+        int lineFrom = vertical ? from / size : from % size;
+        int lineTo = vertical ? to / size : to % size;
+        return h + lineConflicts(state, vertical, lineFrom, -1, -1) + lineConflicts(state, vertical, lineTo, -1, -1)
+                - lineConflicts(state, vertical, lineFrom, from, to) - lineConflicts(state, vertical, lineTo, from, to);
+    }
+
+    // Extra moves of one row (or column); from >= 0: as it was before the tile slid from there onto to
+    private int lineConflicts(int[][] state, boolean row, int line, int from, int to) {
+        int movedTile = from >= 0 ? state[to / size][to % size] : 0;
+        int code = 0;
+        for (int k = 0; k < size; k++) {
+            int i = row ? line : k, j = row ? k : line;
+            int cell = i * size + j;
+            int tile = cell == to ? 0 : cell == from ? movedTile : state[i][j];
+            boolean inLine = tile != 0 && (row ? goalRow[tile] : goalColumn[tile]) == line;
+            code = code * (size + 1) + (inLine ? (row ? goalColumn[tile] : goalRow[tile]) + 1 : 0);
+        }
+        return conflicts != null ? conflicts[code] : conflictsOf(code);
+    }
+
+    // 2 * (tiles of the line - longest increasing run of their goal places)
+    private int conflictsOf(int code) {
+        int[] places = new int[size];
+        int count = 0;
+        for (int k = 0; k < size; k++) {
+            int digit = code % (size + 1);
+            code /= size + 1;
+            if (digit > 0) {
+                places[count++] = digit; // read backwards, so the longest decreasing run is wanted
+            }
+        }
+        int[] run = new int[count]; // run[i] = longest decreasing run ending at i
+        int longest = 0;
+        for (int i = 0; i < count; i++) {
+            run[i] = 1;
+            for (int j = 0; j < i; j++) {
+                if (places[j] > places[i]) {
+                    run[i] = Math.max(run[i], run[j] + 1);
+                }
+            }
+            longest = Math.max(longest, run[i]);
+        }
+        return 2 * (count - longest);
+    }
+}
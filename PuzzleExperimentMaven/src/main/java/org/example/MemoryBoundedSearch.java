@@ -0,0 +1,308 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+// Simplified memory-bounded A* (SMA*, Russell 1992): never holds more than maxNodes search nodes
+// Tree search on packed states (boards up to 4x4), only the move straight back is left out.
+// When the budget is used up, the worst leaf (highest f, then shallowest) is forgotten; its parent keeps the
+// leaf's f as a lower bound for that move ("backed up" f), so the search comes back to the leaf once everything
+// else looks worse and generates it again (a regeneration). A node's f is backed up to the lowest f of its
+// successors, so the f values only get more accurate. Paths that can not fit into the budget get f = infinity.
+// With an admissible heuristic the solution is optimal as long as the budget holds the optimal path
+// (maxNodes > solution length); if it does not, the result is null
+public class MemoryBoundedSearch implements PuzzleSolver {
+    private static final int INFINITE = Integer.MAX_VALUE;
+    private static final int[][] MOVES = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}}; // Up, Down, Left, Right
+    // heap bytes of one Node with its two small arrays (compressed oops), plus its TreeSet entry
+    static final int NODE_BYTES = 136 + 40;
+
+    private final int maxNodes;
+    private int size;
+    private Heuristic heuristic;
+    private int[][] board; // scratch board for the heuristic updates
+    private long goal;
+    // expandable nodes: never expanded (key = f) or with forgotten successors (key = lowest forgotten f)
+    // first = deepest of the lowest key (next to expand), last = shallowest of the highest key (next to forget)
+    private final TreeSet<Node> open = new TreeSet<>((a, b) -> a.key != b.key ? Integer.compare(a.key, b.key)
+            : a.g != b.g ? Integer.compare(b.g, a.g) : Long.compare(a.id, b.id));
+    private long nextId;
+    private int nodesInMemory;
+    private int expandedNodes;
+    private long peakNodes;
+    private long regenerations;
+
+    public MemoryBoundedSearch(int maxNodes) {
+        if (maxNodes < 2) {
+            throw new IllegalArgumentException("At least 2 nodes needed, was " + maxNodes);
+        }
+        this.maxNodes = maxNodes;
+    }
+
+    // Budget in heap bytes instead of nodes
+    public static MemoryBoundedSearch withByteBudget(long maxBytes) {
+        return new MemoryBoundedSearch((int) Math.min(Integer.MAX_VALUE, maxBytes / NODE_BYTES));
+    }
+
+    // Budget report: same 3x3 boards with a shrinking node budget, A* with the whole state space as reference
+    // optional arguments: number of boards, heuristic
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        String heuristicType = args.length > 1 ? args[1] : "Manhattan";
+        int[][] goalState = Puzzle.generateGoalState(3);
+        Random random = new Random(11);
+        List<Puzzle> puzzles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            puzzles.add(new Puzzle(Puzzle.generateSolvableState(3, random)));
+        }
+        long expanded = 0, peak = 0;
+        for (Puzzle puzzle : puzzles) {
+            AStarSearch search = new AStarSearch(true);
+            search.solveStepByStep(puzzle, goalState, heuristicType);
+            expanded += search.getExpandedNodes();
+            peak = Math.max(peak, search.getPeakNodes());
+        }
+        System.out.printf("A*: %d expanded, peak %d nodes%n", expanded, peak);
+
+        for (int budget : new int[]{100_000, 10_000, 1_000, 100, 40}) {
+            long start = System.nanoTime();
+            long regenerations = 0;
+            int cost = 0;
+            expanded = 0;
+            peak = 0;
+            for (Puzzle puzzle : puzzles) {
+                MemoryBoundedSearch search = new MemoryBoundedSearch(budget);
+                cost += search.solveStepByStep(puzzle, goalState, heuristicType).getG();
+                expanded += search.getExpandedNodes();
+                peak = Math.max(peak, search.getPeakNodes());
+                regenerations += search.getRegenerations();
+            }
+            System.out.printf("SMA*, budget %d nodes: %d ms, %d expanded, peak %d nodes, %d regenerations, total cost %d%n",
+                    budget, (System.nanoTime() - start) / 1_000_000, expanded, peak, regenerations, cost);
+        }
+    }
+
+    @Override
+    public AStarSearch.PuzzleNode solveStepByStep(Puzzle puzzle, int[][] goalState, String heuristicType) {
+        size = goalState.length;
+        if (!PackedState.fits(size)) {
+            throw new IllegalArgumentException("MemoryBoundedSearch works on packed states, boards up to 4x4");
+        }
+        open.clear();
+        nextId = 0;
+        nodesInMemory = 0;
+        expandedNodes = 0;
+        peakNodes = 0;
+        regenerations = 0;
+        if (!puzzle.isSolvable(goalState)) {
+            return null;
+        }
+        heuristic = Heuristic.resolve(heuristicType, goalState);
+        board = new int[size][size];
+        goal = PackedState.pack(goalState);
+        int[][] startState = puzzle.getState();
+        Node root = new Node(PackedState.pack(startState), AStarSearch.blankOf(startState), 0, heuristic.evaluate(startState), null, -1);
+        nodesInMemory = 1;
+        peakNodes = 1;
+        open.add(root);
+
+        while (!open.isEmpty()) {
+            Node node = open.first();
+            if (node.key == INFINITE) {
+                return null; // nothing left that fits into the budget
+            }
+            if (node.state == goal) {
+                return buildPath(node);
+            }
+            open.remove(node);
+            expand(node);
+            expandedNodes++;
+        }
+        return null;
+    }
+
+    @Override
+    public List<Puzzle> reconstructPath(AStarSearch.PuzzleNode goalNode) {
+        return AStarSearch.pathOf(goalNode);
+    }
+
+    @Override
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    // At most maxNodes
+    @Override
+    public long getPeakNodes() {
+        return peakNodes;
+    }
+
+    // Successors generated again after they had been forgotten, in the last solve
+    public long getRegenerations() {
+        return regenerations;
+    }
+
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    // Generates every successor that is not in memory (all of them on the first expansion)
+    private void expand(Node node) {
+        for (int cell = 0; cell < size * size; cell++) {
+            board[cell / size][cell % size] = PackedState.get(node.state, cell);
+        }
+        int blankX = node.blank / size, blankY = node.blank % size;
+        for (int move = 0; move < 4; move++) {
+            int nextX = blankX + MOVES[move][0];
+            int nextY = blankY + MOVES[move][1];
+            if (nextX < 0 || nextY < 0 || nextX >= size || nextY >= size || node.children[move] != null
+                    || node.parent != null && node.parent.blank == nextX * size + nextY) {
+                continue; // off the board, in memory already, or the move back
+            }
+            int next = nextX * size + nextY;
+            boolean regenerated = node.expanded;
+            int f = node.forgottenF[move];
+            if (f == INFINITE && regenerated) {
+                continue; // known to lead nowhere within the budget
+            }
+            if (nodesInMemory >= maxNodes && !forgetWorstLeaf(node)) {
+                node.forgottenF[move] = INFINITE; // the budget is all on the current path
+                continue;
+            }
+            int tile = board[nextX][nextY];
+            board[blankX][blankY] = tile;
+            board[nextX][nextY] = 0;
+            int h = heuristic.update(board, node.h, tile, next, node.blank);
+            board[nextX][nextY] = tile;
+            board[blankX][blankY] = 0;
+
+            Node child = new Node(PackedState.move(node.state, node.blank, next), next, node.g + 1, h, node, move);
+            // pathmax, the backed up value of a forgotten child, and no room below the deepest possible path
+            child.f = Math.max(node.f, child.g + h);
+            if (regenerated) {
+                child.f = Math.max(child.f, f);
+                regenerations++;
+            }
+            if (child.state != goal && child.g + 1 >= maxNodes) {
+                child.f = INFINITE;
+            }
+            child.key = child.f;
+            node.children[move] = child;
+            node.forgottenF[move] = INFINITE;
+            nodesInMemory++;
+            peakNodes = Math.max(peakNodes, nodesInMemory);
+            open.add(child);
+        }
+        node.expanded = true;
+        backUp(node);
+        requeue(node);
+    }
+
+    // Drops the shallowest leaf with the highest f (never the node being expanded or the root)
+    private boolean forgetWorstLeaf(Node expanding) {
+        Iterator<Node> worstFirst = open.descendingIterator();
+        while (worstFirst.hasNext()) {
+            Node leaf = worstFirst.next();
+            if (leaf == expanding || leaf.parent == null || leaf.hasChildren()) {
+                continue;
+            }
+            worstFirst.remove();
+            Node parent = leaf.parent;
+            parent.children[leaf.move] = null;
+            parent.forgottenF[leaf.move] = leaf.f;
+            nodesInMemory--;
+            requeue(parent);
+            return true;
+        }
+        return false;
+    }
+
+    // f of an expanded node = lowest f of its successors (in memory or forgotten), passed on to the parents
+    private void backUp(Node node) {
+        while (node != null && node.expanded) {
+            int lowest = INFINITE;
+            for (int move = 0; move < 4; move++) {
+                lowest = Math.min(lowest, node.children[move] != null ? node.children[move].f : node.forgottenF[move]);
+            }
+            if (lowest <= node.f) {
+                return;
+            }
+            node.f = lowest;
+            node = node.parent;
+        }
+    }
+
+    // puts an expanded node back into open while it has forgotten successors, keyed by the best of them
+    private void requeue(Node node) {
+        if (!node.expanded) {
+            return; // in open with key = f already
+        }
+        int lowestForgotten = INFINITE;
+        boolean forgotten = false;
+        for (int move = 0; move < 4; move++) {
+            if (node.children[move] == null && node.forgottenF[move] != INFINITE) {
+                lowestForgotten = Math.min(lowestForgotten, node.forgottenF[move]);
+                forgotten = true;
+            }
+        }
+        open.remove(node);
+        if (forgotten) {
+            node.key = lowestForgotten;
+            open.add(node);
+        }
+    }
+
+    private AStarSearch.PuzzleNode buildPath(Node goalNode) {
+        List<Node> path = new ArrayList<>();
+        for (Node node = goalNode; node != null; node = node.parent) {
+            path.add(node);
+        }
+        Collections.reverse(path);
+        AStarSearch.PuzzleNode puzzleNode = null;
+        for (Node node : path) {
+            puzzleNode = new AStarSearch.PuzzleNode(node.state, size, node.blank, node.g, node.h, puzzleNode);
+        }
+        return puzzleNode;
+    }
+
+    // Search tree node, children per move (null = not in memory)
+    private final class Node {
+        private final long id = nextId++;
+        private final long state;
+        private final int blank;
+        private final int g;
+        private final int h;
+        private final Node parent;
+        private final int move; // move of the blank from the parent to here
+        private final Node[] children = new Node[4];
+        // f of a forgotten successor per move, INFINITE = none (never generated, in memory, or no way on)
+        private final int[] forgottenF = {INFINITE, INFINITE, INFINITE, INFINITE};
+        private boolean expanded;
+        private int f;
+        private int key; // order in open, only changed while the node is not in open
+
+        Node(long state, int blank, int g, int h, Node parent, int move) {
+            this.state = state;
+            this.blank = blank;
+            this.g = g;
+            this.h = h;
+            this.parent = parent;
+            this.move = move;
+            this.f = g + h;
+            this.key = f;
+        }
+
+        boolean hasChildren() {
+            for (Node child : children) {
+                if (child != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Search nodes as struct of arrays instead of one PuzzleNode object each: node i is states[i], parents[i], ...
+// 17 bytes per node (packed state 8, parent index 4, g 2, h 2, blank 1) in a handful of big arrays, against
+// about 48 bytes plus object header for a packed PuzzleNode, and nothing for the GC to trace per node
+// Nodes are only ever appended, a node's index stays valid until clear()
+public class NodeArena {
+    public static final int NO_PARENT = -1;
+
+    private long[] states;
+    private int[] parents;
+    private short[] g;
+    private short[] h;
+    private byte[] blanks;
+    private int size;
+
+    public NodeArena() {
+        this(1 << 12);
+    }
+
+    public NodeArena(int capacity) {
+        states = new long[capacity];
+        parents = new int[capacity];
+        g = new short[capacity];
+        h = new short[capacity];
+        blanks = new byte[capacity];
+    }
+
+    // Appends a node, returns its index
+    public int add(long state, int parent, int g, int h, int blank) {
+        if (size == states.length) {
+            grow();
+        }
+        states[size] = state;
+        parents[size] = parent;
+        this.g[size] = (short) g;
+        this.h[size] = (short) h;
+        blanks[size] = (byte) blank;
+        return size++;
+    }
+
+    public long getState(int node) {
+        return states[node];
+    }
+
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    public int getG(int node) {
+        return g[node];
+    }
+
+    public int getH(int node) {
+        return h[node];
+    }
+
+    public int getBlank(int node) {
+        return blanks[node];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Bytes held by the arrays, including the unused capacity
+    public long capacityBytes() {
+        return (long) states.length * (8 + 4 + 2 + 2 + 1);
+    }
+
+    // Forgets all nodes but keeps the arrays for the next solve
+    public void clear() {
+        size = 0;
+    }
+
+    private void grow() {
+        int capacity = states.length + (states.length >> 1); // 1.5x, the arrays get big
+        states = Arrays.copyOf(states, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        g = Arrays.copyOf(g, capacity);
+        h = Arrays.copyOf(h, capacity);
+        blanks = Arrays.copyOf(blanks, capacity);
+    }
+}
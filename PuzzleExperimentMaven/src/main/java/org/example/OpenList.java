@@ -0,0 +1,23 @@
+package org.example;
+
+// Open list of the A* search (nodes still to explore), poll() gives the next node to expand
+interface OpenList {
+
+    // Which implementation solveStepByStep uses
+    enum Type {
+        PRIORITY_QUEUE, // binary heap ordered by f only (the original behaviour)
+        BUCKET // one LIFO stack per (f, h), lowest f first and within the same f lowest h
+    }
+
+    void add(AStarSearch.PuzzleNode node);
+
+    AStarSearch.PuzzleNode poll();
+
+    boolean isEmpty();
+
+    int size();
+
+    static OpenList create(Type type) {
+        return type == Type.BUCKET ? new BucketOpenList() : new HeapOpenList();
+    }
+}
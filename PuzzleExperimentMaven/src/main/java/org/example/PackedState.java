@@ -0,0 +1,66 @@
+package org.example;
+
+// Packs a board into a single long, 4 bits per tile (cell 0 = lowest nibble, row by row)
+// 16 cells * 4 bits = 64 bits, so this covers every board up to 4x4
+// Used instead of Arrays.deepToString(...) keys, no strings or arrays get built per state
+public final class PackedState {
+    public static final int MAX_SIZE = 4;
+    private static final int BITS_PER_TILE = 4;
+    private static final long TILE_MASK = 0xFL;
+
+    private PackedState() {
+    }
+
+    // true if boards of that width fit into one long
+    public static boolean fits(int size) {
+        return size > 0 && size <= MAX_SIZE;
+    }
+
+    // int[][] -> long
+    public static long pack(int[][] state) {
+        int size = state.length;
+        if (!fits(size)) {
+            throw new IllegalArgumentException("Board size " + size + " does not fit into a packed long");
+        }
+        long packed = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                packed |= ((long) state[i][j]) << ((i * size + j) * BITS_PER_TILE);
+            }
+        }
+        return packed;
+    }
+
+    // long -> int[][], only needed when somebody wants to look at the board (path, printing)
+    public static int[][] unpack(long packed, int size) {
+        int[][] state = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                state[i][j] = get(packed, i * size + j);
+            }
+        }
+        return state;
+    }
+
+    // tile on a cell (cell = row * size + column)
+    public static int get(long packed, int cell) {
+        return (int) ((packed >>> (cell * BITS_PER_TILE)) & TILE_MASK);
+    }
+
+    // cell of the empty spot (0)
+    public static int findBlank(long packed, int cellCount) {
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (get(packed, cell) == 0) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    // Slides the tile on tileCell into the empty spot on blankCell
+    // blank nibble is 0, so the tile just gets or-ed in and cleared at its old cell
+    public static long move(long packed, int blankCell, int tileCell) {
+        long tile = (packed >>> (tileCell * BITS_PER_TILE)) & TILE_MASK;
+        return (packed & ~(TILE_MASK << (tileCell * BITS_PER_TILE))) | (tile << (blankCell * BITS_PER_TILE));
+    }
+}
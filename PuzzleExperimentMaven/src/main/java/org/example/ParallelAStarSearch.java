@@ -0,0 +1,384 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Hash distributed A* (HDA*, Kishimoto et al. 2009): one hard instance searched by several threads
+// Every packed state has an owner thread (hash of the state), the owner keeps its open list and best g.
+// A worker expands its own best nodes and sends each child to the child's owner, in batches of BATCH
+// nodes through the owner's lock-free inbox (ConcurrentLinkedQueue). Duplicate detection happens at the
+// owner, so no state is ever locked. States reached again with a smaller g are reopened.
+// Workers do not expand in global f order, so the first solution found need not be optimal: it becomes the
+// incumbent and the search goes on until no node with f below the incumbent's cost is left anywhere.
+// Termination: pending = nodes created but not expanded, counted lazily per worker (see publish), the search
+// is over once it drops to 0. Boards up to 4x4 (PackedState), any Heuristic
+public class ParallelAStarSearch implements PuzzleSolver {
+    private static final int BATCH = 64; // nodes per handoff to another worker, by default
+    private static final int FLUSH_INTERVAL = 256; // expansions between two flushes of partly filled batches
+    private static final long IDLE_PARK_NANOS = 20_000;
+
+    private final int threads;
+    private final int batch;
+    private int size;
+    private long goal;
+    private int[][] goalState;
+    private String heuristicType;
+    private int[][] neighbours; // cells the blank can move to, per cell
+    private Worker[] workers;
+    private final AtomicLong pending = new AtomicLong();
+    private volatile boolean done;
+    private volatile Throwable failure; // first exception of a worker, stops all of them
+    private volatile int incumbent; // cost of the best solution found so far
+    private AStarSearch.PuzzleNode incumbentNode; // guarded by this
+    private long expandedNodes;
+    private long peakNodes;
+
+    public ParallelAStarSearch() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelAStarSearch(int threads) {
+        this(threads, BATCH);
+    }
+
+    // smaller batches hand nodes over more often, the stress check uses 1 and 2 to provoke flushes mid-expansion
+    ParallelAStarSearch(int threads, int batch) {
+        if (threads < 1 || batch < 1) {
+            throw new IllegalArgumentException("At least one thread and a batch of one needed, was " + threads + ", " + batch);
+        }
+        this.threads = threads;
+        this.batch = batch;
+    }
+
+    // Speedup report: solves the same random 4x4 boards with 1, 2, 4, ... threads (up to the number of cores
+    // or the given maximum) and with the single threaded AStarSearch for reference
+    // Usage: ParallelAStarSearch [boards] [max threads] [heuristic]
+    //        ParallelAStarSearch stress [rounds] [max threads]
+    public static void main(String[] args) {
+        if (args.length > 0 && "stress".equals(args[0])) {
+            stress(args.length > 1 ? Integer.parseInt(args[1]) : 500,
+                    args.length > 2 ? Integer.parseInt(args[2]) : 2 * Runtime.getRuntime().availableProcessors());
+            return;
+        }
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String heuristicType = args.length > 2 ? args[2] : "PatternDatabase";
+        int[][] goalState = Puzzle.generateGoalState(4);
+        Random random = new Random(11); // same boards on every run
+        Puzzle[] puzzles = new Puzzle[count];
+        for (int i = 0; i < count; i++) {
+            puzzles[i] = new Puzzle(Puzzle.generateSolvableState(4, random));
+        }
+
+        long start = System.nanoTime();
+        long expanded = 0;
+        for (Puzzle puzzle : puzzles) {
+            AStarSearch search = new AStarSearch(true, OpenList.Type.BUCKET);
+            search.solveStepByStep(puzzle, goalState, heuristicType);
+            expanded += search.getExpandedNodes();
+        }
+        System.out.println("AStarSearch: " + (System.nanoTime() - start) / 1_000_000 + " ms, " + expanded + " nodes expanded");
+
+        double singleThreadMs = 0;
+        for (int threads = 1; threads <= maxThreads; threads = threads < maxThreads ? Math.min(threads * 2, maxThreads) : threads + 1) {
+            start = System.nanoTime();
+            expanded = 0;
+            for (Puzzle puzzle : puzzles) {
+                ParallelAStarSearch search = new ParallelAStarSearch(threads);
+                search.solveStepByStep(puzzle, goalState, heuristicType);
+                expanded += search.getExpandedNodes();
+            }
+            double ms = (System.nanoTime() - start) / 1e6;
+            if (threads == 1) {
+                singleThreadMs = ms;
+            }
+            System.out.printf("%d thread(s): %.0f ms, %d nodes expanded, speedup %.2f%n", threads, ms, expanded, singleThreadMs / ms);
+        }
+    }
+
+    // Optimality stress check: random thread counts and batch sizes (1 and 2 flush in the middle of almost every
+    // expansion) on 3x3 boards against the EightPuzzleTable distance and on 4x4 random walks against IDA*
+    // Throws on the first cost that differs
+    static void stress(int rounds, int maxThreads) {
+        Random random = new Random(15);
+        int[][] goal3 = Puzzle.generateGoalState(3);
+        int[][] goal4 = Puzzle.generateGoalState(4);
+        EightPuzzleTable table = EightPuzzleTable.forGoal(goal3);
+        int[] batches = {1, 2, 3, BATCH};
+        for (int round = 0; round < rounds; round++) {
+            int threads = 1 + random.nextInt(Math.max(2, maxThreads));
+            int batch = batches[random.nextInt(batches.length)];
+            boolean small = round % 4 != 3; // every 4th round a 4x4 board
+            Puzzle puzzle = new Puzzle(small ? Puzzle.generateSolvableState(3, random)
+                    : Workload.randomWalk(goal4, 20 + random.nextInt(20), random));
+            int[][] goal = small ? goal3 : goal4;
+            int expected = small ? table.distance(puzzle.getState())
+                    : new IDAStarSearch().solveStepByStep(puzzle, goal, "Manhattan").getG();
+            ParallelAStarSearch search = new ParallelAStarSearch(threads, batch);
+            AStarSearch.PuzzleNode found = search.solveStepByStep(puzzle, goal, "Manhattan");
+            if (found == null || found.getG() != expected) {
+                throw new IllegalStateException("Round " + round + ", " + threads + " threads, batch " + batch + ": cost "
+                        + (found == null ? "none" : found.getG()) + " instead of " + expected);
+            }
+            if (search.reconstructPath(found).size() != expected + 1) {
+                throw new IllegalStateException("Round " + round + ": broken solution path");
+            }
+        }
+        System.out.println(rounds + " rounds with up to " + maxThreads + " threads, all costs optimal");
+    }
+
+    @Override
+    public AStarSearch.PuzzleNode solveStepByStep(Puzzle puzzle, int[][] goalState, String heuristicType) {
+        if (!PackedState.fits(goalState.length)) {
+            throw new IllegalArgumentException("ParallelAStarSearch works on packed states, boards up to 4x4");
+        }
+        expandedNodes = 0;
+        peakNodes = 0;
+        if (!puzzle.isSolvable(goalState)) {
+            return null; // would search the whole reachable half of the state space
+        }
+        this.size = goalState.length;
+        this.goal = PackedState.pack(goalState);
+        this.goalState = goalState;
+        this.heuristicType = heuristicType;
+        this.done = false;
+        this.failure = null;
+        this.neighbours = new int[size * size][];
+        for (int cell = 0; cell < size * size; cell++) {
+            int x = cell / size, y = cell % size;
+            int[] next = new int[4];
+            int count = 0;
+            if (x > 0) next[count++] = cell - size;
+            if (x < size - 1) next[count++] = cell + size;
+            if (y > 0) next[count++] = cell - 1;
+            if (y < size - 1) next[count++] = cell + 1;
+            neighbours[cell] = Arrays.copyOf(next, count);
+        }
+        this.incumbent = Integer.MAX_VALUE;
+        this.incumbentNode = null;
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+        }
+
+        // start node goes straight to its owner, pending counts it from the beginning
+        int[][] startState = puzzle.getState();
+        long start = PackedState.pack(startState);
+        Worker owner = workers[owner(start)];
+        AStarSearch.PuzzleNode startNode = new AStarSearch.PuzzleNode(start, size, AStarSearch.blankOf(startState), 0,
+                owner.heuristic.evaluate(startState), null);
+        owner.bestG.put(start, 0);
+        owner.open.add(startNode);
+        pending.set(1);
+
+        Thread[] running = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            running[i] = new Thread(workers[i], "hda-worker-" + i);
+            running[i].start();
+        }
+        try {
+            for (Thread thread : running) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            done = true;
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving", e);
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Parallel search failed", failure);
+        }
+        for (Worker worker : workers) {
+            expandedNodes += worker.expanded;
+            peakNodes += worker.bestG.size(); // every state stays in its owner's table
+        }
+        workers = null;
+        synchronized (this) {
+            return incumbentNode;
+        }
+    }
+
+    @Override
+    public List<Puzzle> reconstructPath(AStarSearch.PuzzleNode goalNode) {
+        return AStarSearch.pathOf(goalNode);
+    }
+
+    @Override
+    public int getExpandedNodes() {
+        return (int) Math.min(Integer.MAX_VALUE, expandedNodes);
+    }
+
+    // States stored over all workers (each keeps the best g of every state it owns)
+    @Override
+    public long getPeakNodes() {
+        return peakNodes;
+    }
+
+    private synchronized void offerSolution(AStarSearch.PuzzleNode node) {
+        if (node.getG() < incumbent) {
+            incumbentNode = node;
+            incumbent = node.getG();
+        }
+    }
+
+    private int owner(long state) {
+        // murmur3 finalizer, upper bits so the owner does not line up with the LongIntHashMap slots
+        state ^= state >>> 33;
+        state *= 0xff51afd7ed558ccdL;
+        state ^= state >>> 33;
+        state *= 0xc4ceb9fe1a85ec53L;
+        state ^= state >>> 33;
+        return (int) ((state >>> 32) % threads);
+    }
+
+    // One thread with the open list and best g of the states it owns
+    private final class Worker implements Runnable {
+        private final int id;
+        private final OpenList open = OpenList.create(OpenList.Type.BUCKET);
+        private final LongIntHashMap bestG = new LongIntHashMap();
+        private final ConcurrentLinkedQueue<AStarSearch.PuzzleNode[]> inbox = new ConcurrentLinkedQueue<>();
+        private final AStarSearch.PuzzleNode[][] outbox = new AStarSearch.PuzzleNode[threads][batch];
+        private final int[] outboxSize = new int[threads];
+        private final Heuristic heuristic = Heuristic.resolve(heuristicType, goalState); // own scratch arrays
+        private final int[][] board = new int[size][size];
+        // nodes created minus nodes finished by this worker, not yet added to pending
+        private long unpublished;
+        private long expanded;
+
+        Worker(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+            try {
+                search();
+            } catch (RuntimeException | Error e) {
+                failure = e;
+                done = true;
+            }
+        }
+
+        private void search() {
+            int sinceFlush = 0;
+            while (!done) {
+                receive();
+                AStarSearch.PuzzleNode node = open.poll();
+                if (node == null) {
+                    flushAll();
+                    publish();
+                    if (pending.get() == 0) {
+                        done = true;
+                    } else if (inbox.isEmpty()) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    continue;
+                }
+                expand(node);
+                unpublished--; // only now: a flush inside expand must not publish the parent as finished
+                if (++sinceFlush == FLUSH_INTERVAL) {
+                    flushAll();
+                    sinceFlush = 0;
+                }
+            }
+        }
+
+        // Nodes sent by the other workers: kept if they improve the best g of their state
+        private void receive() {
+            AStarSearch.PuzzleNode[] batch;
+            while ((batch = inbox.poll()) != null) {
+                for (AStarSearch.PuzzleNode node : batch) {
+                    long state = node.getPackedState();
+                    if (node.getG() < bestG.get(state, Integer.MAX_VALUE)) {
+                        bestG.put(state, node.getG());
+                        open.add(node);
+                    } else {
+                        unpublished--; // duplicate, finished right away
+                    }
+                }
+            }
+        }
+
+        private void expand(AStarSearch.PuzzleNode node) {
+            long state = node.getPackedState();
+            if (node.getG() > bestG.get(state, Integer.MAX_VALUE) || node.getF() >= incumbent) {
+                return; // a better copy is on the way, or it can not beat the incumbent
+            }
+            if (state == goal) {
+                offerSolution(node);
+                return;
+            }
+            expanded++;
+            long parentState = node.getParent() == null ? -1 : node.getParent().getPackedState();
+            int blank = node.getBlank();
+            for (int cell = 0; cell < size * size; cell++) {
+                board[cell / size][cell % size] = PackedState.get(state, cell);
+            }
+            for (int next : neighbours[blank]) {
+                long child = PackedState.move(state, blank, next);
+                int g = node.getG() + 1;
+                int owner = owner(child);
+                if (child == parentState || owner == id && g >= bestG.get(child, Integer.MAX_VALUE)) {
+                    continue;
+                }
+                int tile = board[next / size][next % size];
+                board[blank / size][blank % size] = tile;
+                board[next / size][next % size] = 0;
+                int h = heuristic.update(board, node.getH(), tile, next, blank);
+                board[next / size][next % size] = tile;
+                board[blank / size][blank % size] = 0;
+                if (g + h >= incumbent) {
+                    continue;
+                }
+                AStarSearch.PuzzleNode childNode = new AStarSearch.PuzzleNode(child, size, next, g, h, node);
+                unpublished++;
+                if (owner == id) {
+                    bestG.put(child, g);
+                    open.add(childNode);
+                } else {
+                    send(owner, childNode);
+                }
+            }
+        }
+
+        private void send(int owner, AStarSearch.PuzzleNode node) {
+            outbox[owner][outboxSize[owner]++] = node;
+            if (outboxSize[owner] == batch) {
+                flush(owner);
+            }
+        }
+
+        private void flushAll() {
+            for (int owner = 0; owner < threads; owner++) {
+                flush(owner);
+            }
+        }
+
+        // the count goes out before the nodes, so the owner can never finish them before they are counted
+        private void flush(int owner) {
+            int count = outboxSize[owner];
+            if (count == 0) {
+                return;
+            }
+            publish();
+            workers[owner].inbox.add(Arrays.copyOf(outbox[owner], count));
+            Arrays.fill(outbox[owner], 0, count, null);
+            outboxSize[owner] = 0;
+        }
+
+        // pending = sum of what the workers published. A node's -1 is only counted after expand has counted all
+        // of its children, so any node a worker still holds unpublished descends from a node whose +1 is in
+        // pending and whose -1 is not: pending can not reach 0 while a node exists, also when a full outbox
+        // is flushed (and published) in the middle of an expansion
+        private void publish() {
+            if (unpublished != 0) {
+                pending.addAndGet(unpublished);
+                unpublished = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Disjoint additive pattern database heuristic ("PatternDatabase")
+// The tiles are split into groups (patterns), for each pattern a table holds the exact number of moves
+// of its own tiles needed to bring them home, for every placement of them. Every move moves exactly one
+// tile, so the values of the different patterns can be added up and the sum stays admissible
+// The tables are built once by PatternDatabaseBuilder and memory mapped from the file on startup
+//
+// File layout (big endian): magic, size, goal cells, pattern count, per pattern tile count + tiles,
+// then one byte per placement for every pattern, placements ranked by rank()
+public class PatternDatabase {
+    static final int MAGIC = 0x50444231; // "PDB1"
+    // file directory, default the working directory
+    private static final String DIRECTORY_PROPERTY = "puzzle.pdb.dir";
+    private static final Map<Integer, PatternDatabase> LOADED = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int[] goal; // flat goal board the tables were built for
+    private final int[][] patterns; // tiles of each pattern
+    private final int[] patternOfTile; // pattern index per tile, -1 for 0
+    private final long[] offsets; // start of each table in the buffer
+    private final ByteBuffer tables;
+
+    private PatternDatabase(int size, int[] goal, int[][] patterns, long[] offsets, ByteBuffer tables) {
+        this.size = size;
+        this.goal = goal;
+        this.patterns = patterns;
+        this.offsets = offsets;
+        this.tables = tables;
+        this.patternOfTile = new int[size * size];
+        Arrays.fill(patternOfTile, -1);
+        for (int p = 0; p < patterns.length; p++) {
+            for (int tile : patterns[p]) {
+                patternOfTile[tile] = p;
+            }
+        }
+    }
+
+    // Sizes with default patterns (3x3 and 4x4), larger tables would not fit in memory
+    public static boolean supports(int size) {
+        return size == 3 || size == 4;
+    }
+
+    // Database for the standard goal of that size, mapped from pattern-database-<size>x<size>.pdb,
+    // the file gets built the first time it does not exist yet
+    // built or loaded outside the map (a 4x4 build takes seconds, computeIfAbsent would block the map for that
+    // long); threads that race on the first call may both load it, the first one in the map wins
+    public static PatternDatabase forSize(int size) {
+        if (!supports(size)) {
+            throw new IllegalArgumentException("Pattern databases only exist for 3x3 and 4x4 boards, not " + size + "x" + size);
+        }
+        PatternDatabase loaded = LOADED.get(size);
+        if (loaded != null) {
+            return loaded;
+        }
+        Path file = Paths.get(System.getProperty(DIRECTORY_PROPERTY, "."), "pattern-database-" + size + "x" + size + ".pdb");
+        try {
+            if (!Files.exists(file)) {
+                PatternDatabaseBuilder.build(Puzzle.generateGoalState(size), PatternDatabaseBuilder.defaultPatterns(size), file);
+            }
+            loaded = load(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load pattern database " + file, e);
+        }
+        PatternDatabase first = LOADED.putIfAbsent(size, loaded);
+        return first != null ? first : loaded;
+    }
+
+    // Memory maps a database file, tables are paged in by the OS when they are read
+    public static PatternDatabase load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a pattern database");
+            }
+            int size = buffer.getInt();
+            int cells = size * size;
+            int[] goal = new int[cells];
+            for (int cell = 0; cell < cells; cell++) {
+                goal[cell] = buffer.getInt();
+            }
+            int[][] patterns = new int[buffer.getInt()][];
+            for (int p = 0; p < patterns.length; p++) {
+                patterns[p] = new int[buffer.getInt()];
+                for (int t = 0; t < patterns[p].length; t++) {
+                    patterns[p][t] = buffer.getInt();
+                }
+            }
+            long[] offsets = new long[patterns.length];
+            long offset = buffer.position();
+            for (int p = 0; p < patterns.length; p++) {
+                offsets[p] = offset;
+                offset += placements(cells, patterns[p].length);
+            }
+            if (offset != channel.size()) {
+                throw new IOException(file + " is truncated or does not match its header");
+            }
+            return new PatternDatabase(size, goal, patterns, offsets, buffer); // mapping stays valid after close
+        }
+    }
+
+    // true if the tables were built for this goal board
+    public boolean matches(int[][] goalState) {
+        if (goalState.length != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (goalState[i][j] != goal[i * size + j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Heuristic for a board given as tile -> cell (tilePosition[tile] = cell of that tile)
+    public int heuristic(int[] tilePosition) {
+        int h = 0;
+        for (int p = 0; p < patterns.length; p++) {
+            h += value(p, tilePosition);
+        }
+        return h;
+    }
+
+    // Heuristic for a 2d board
+    public int heuristic(int[][] state) {
+        int[] tilePosition = new int[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                tilePosition[state[i][j]] = i * size + j;
+            }
+        }
+        return heuristic(tilePosition);
+    }
+
+    // Table value of one pattern, only the pattern of the moved tile has to be looked up again after a move
+    public int value(int pattern, int[] tilePosition) {
+        int[] tiles = patterns[pattern];
+        int cells = size * size;
+        int used = 0;
+        int index = 0;
+        for (int t = 0; t < tiles.length; t++) {
+            int cell = tilePosition[tiles[t]];
+            index = index * (cells - t) + cell - Integer.bitCount(used & ((1 << cell) - 1));
+            used |= 1 << cell;
+        }
+        return tables.get((int) (offsets[pattern] + index)) & 0xFF;
+    }
+
+    // Pattern the tile belongs to, -1 for the blank
+    public int patternOf(int tile) {
+        return patternOfTile[tile];
+    }
+
+    // Tiles of a pattern, not to be modified
+    public int[] tilesOf(int pattern) {
+        return patterns[pattern];
+    }
+
+    public int getPatternCount() {
+        return patterns.length;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // Number of placements of k tiles on n cells: n! / (n - k)!
+    static long placements(int cells, int tiles) {
+        long count = 1;
+        for (int t = 0; t < tiles; t++) {
+            count *= cells - t;
+        }
+        return count;
+    }
+}
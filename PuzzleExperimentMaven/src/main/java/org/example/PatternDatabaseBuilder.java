@@ -0,0 +1,182 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+
+// Builds the tables of a PatternDatabase and writes them to a file (see PatternDatabase for the layout)
+// Each table is a backward breadth first search from the goal placement of the pattern tiles.
+// Only the pattern tiles are tracked, a pattern tile may move onto any neighbouring cell that has no
+// other pattern tile (there could be the blank), and each such move costs 1
+// Usage: PatternDatabaseBuilder <size> [file]
+public class PatternDatabaseBuilder {
+    private static final byte UNSEEN = (byte) 0xFF;
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        Path file = Paths.get(args.length > 1 ? args[1] : "pattern-database-" + size + "x" + size + ".pdb");
+        long start = System.nanoTime();
+        build(Puzzle.generateGoalState(size), defaultPatterns(size), file);
+        System.out.println("Pattern database written to " + file + " in " + (System.nanoTime() - start) / 1_000_000 + " ms ("
+                + Files.size(file) + " bytes)");
+    }
+
+    // 3x3: one pattern with all tiles, i.e. the exact distance; 4x4: the usual 6-6-3 split (PatternDatabase.supports)
+    static int[][] defaultPatterns(int size) {
+        if (size == 3) {
+            return new int[][]{{1, 2, 3, 4, 5, 6, 7, 8}};
+        } else if (size == 4) {
+            return new int[][]{{1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4}};
+        }
+        throw new IllegalArgumentException("No default patterns for size " + size);
+    }
+
+    // Builds all tables and writes them, the file is replaced in one step so readers never see half a file
+    // the tables go to a temp file of their own next to it, so JVMs building at the same time do not mix them
+    static void build(int[][] goalState, int[][] patterns, Path file) throws IOException {
+        int size = goalState.length;
+        int cells = size * size;
+        int[] goal = new int[cells];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(goalState[i], 0, goal, i * size, size);
+        }
+
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            write(tmp, size, goal, patterns);
+            if (Files.getFileStore(tmp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                // temp files are owner only, the database is shared read only like any other file
+                Files.setPosixFilePermissions(tmp, PosixFilePermissions.fromString("rw-r--r--"));
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING); // file systems without atomic renames
+            }
+        } finally {
+            Files.deleteIfExists(tmp); // only still there if writing or moving failed
+        }
+    }
+
+    private static void write(Path tmp, int size, int[] goal, int[][] patterns) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(PatternDatabase.MAGIC);
+            out.writeInt(size);
+            for (int tile : goal) {
+                out.writeInt(tile);
+            }
+            out.writeInt(patterns.length);
+            for (int[] pattern : patterns) {
+                out.writeInt(pattern.length);
+                for (int tile : pattern) {
+                    out.writeInt(tile);
+                }
+            }
+            for (int[] pattern : patterns) {
+                out.write(buildTable(size, goal, pattern));
+            }
+        }
+    }
+
+    // Breadth first search over all placements of the pattern tiles, starting at their goal cells
+    static byte[] buildTable(int size, int[] goal, int[] tiles) {
+        int cells = size * size;
+        int count = tiles.length;
+        byte[] distance = new byte[(int) PatternDatabase.placements(cells, count)];
+        Arrays.fill(distance, UNSEEN);
+        int[] queue = new int[distance.length]; // every placement is queued at most once
+        int head = 0, tail = 0;
+
+        int[] positions = new int[count];
+        for (int t = 0; t < count; t++) {
+            for (int cell = 0; cell < cells; cell++) {
+                if (goal[cell] == tiles[t]) {
+                    positions[t] = cell;
+                }
+            }
+        }
+        int start = rank(positions, cells);
+        distance[start] = 0;
+        queue[tail++] = start;
+
+        int[][] neighbours = new int[cells][];
+        for (int cell = 0; cell < cells; cell++) {
+            int x = cell / size, y = cell % size;
+            int[] next = new int[4];
+            int n = 0;
+            if (x > 0) next[n++] = cell - size;
+            if (x < size - 1) next[n++] = cell + size;
+            if (y > 0) next[n++] = cell - 1;
+            if (y < size - 1) next[n++] = cell + 1;
+            neighbours[cell] = Arrays.copyOf(next, n);
+        }
+
+        while (head < tail) {
+            int index = queue[head++];
+            int nextDistance = (distance[index] & 0xFF) + 1;
+            unrank(index, cells, positions);
+            int occupied = 0;
+            for (int cell : positions) {
+                occupied |= 1 << cell;
+            }
+            for (int t = 0; t < count; t++) {
+                int from = positions[t];
+                for (int to : neighbours[from]) {
+                    if ((occupied & (1 << to)) != 0) {
+                        continue; // another pattern tile is there
+                    }
+                    positions[t] = to;
+                    int next = rank(positions, cells);
+                    positions[t] = from;
+                    if (distance[next] == UNSEEN) {
+                        distance[next] = (byte) nextDistance;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return distance;
+    }
+
+    // Same ranking as PatternDatabase.value: mixed radix n, n-1, ... over the still free cells
+    private static int rank(int[] positions, int cells) {
+        int used = 0;
+        int index = 0;
+        for (int t = 0; t < positions.length; t++) {
+            int cell = positions[t];
+            index = index * (cells - t) + cell - Integer.bitCount(used & ((1 << cell) - 1));
+            used |= 1 << cell;
+        }
+        return index;
+    }
+
+    private static void unrank(int index, int cells, int[] positions) {
+        int count = positions.length;
+        for (int t = count - 1; t >= 0; t--) {
+            positions[t] = index % (cells - t); // digit for now, turned into a cell below
+            index /= cells - t;
+        }
+        int used = 0;
+        for (int t = 0; t < count; t++) {
+            int digit = positions[t];
+            int cell = 0;
+            // digit-th cell that is still free
+            while (true) {
+                if ((used & (1 << cell)) == 0 && digit-- == 0) {
+                    break;
+                }
+                cell++;
+            }
+            positions[t] = cell;
+            used |= 1 << cell;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.example;
+
+// PatternDatabase as Heuristic strategy, an update only looks up the pattern of the moved tile again
+// Keeps a tile -> cell array of the last board it saw, so one instance per solver (Heuristic.resolve gives a new
+// one). An update moves the tile in it and checks the other tiles of the pattern against the board (a few cells);
+// only when the solver switched to another board (A* expanding the next node) the whole board is scanned again
+// Solvers may update children of different parents in any order, so the array is never trusted unchecked
+class PatternDatabaseHeuristic implements Heuristic {
+    private final PatternDatabase patternDatabase;
+    private final int[] tilePosition;
+    private final int size;
+
+    PatternDatabaseHeuristic(int[][] goalState) {
+        size = goalState.length;
+        patternDatabase = PatternDatabase.forSize(size); // mapped once per JVM
+        if (!patternDatabase.matches(goalState)) {
+            throw new IllegalArgumentException("Pattern database was built for a different goal state");
+        }
+        tilePosition = new int[size * size];
+    }
+
+    @Override
+    public int evaluate(int[][] state) {
+        positionsOf(state);
+        return patternDatabase.heuristic(tilePosition);
+    }
+
+    @Override
+    public int update(int[][] state, int h, int tile, int from, int to) {
+        int pattern = patternDatabase.patternOf(tile);
+        if (pattern < 0) {
+            return h; // tile is in no pattern
+        }
+        tilePosition[tile] = to;
+        if (!tracks(state, pattern)) {
+            positionsOf(state);
+        }
+        int after = patternDatabase.value(pattern, tilePosition);
+        tilePosition[tile] = from; // the parent board, for the old share of the pattern
+        int before = patternDatabase.value(pattern, tilePosition);
+        tilePosition[tile] = to;
+        return h - before + after;
+    }
+
+    // value() only reads the tiles of the pattern, the others may be out of date
+    private boolean tracks(int[][] state, int pattern) {
+        for (int tile : patternDatabase.tilesOf(pattern)) {
+            int cell = tilePosition[tile];
+            if (state[cell / size][cell % size] != tile) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void positionsOf(int[][] state) {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                tilePosition[state[i][j]] = i * size + j;
+            }
+        }
+    }
+}
@@ -25,32 +25,88 @@ public class Puzzle {
         goal[size - 1][size - 1] = 0; // lastly, here comes also the empty spot for maneuvers added to the board
         return goal;
     }
-    // concept https://www.youtube.com/watch?v=bhmCmbj9VAg
-    // https://www.geeksforgeeks.org/count-inversions-in-a-permutation-of-first-n-natural-numbers/
-    // https://stackoverflow.com/questions/5932756/finding-the-number-of-permutation-inversions
-    // https://jonathan-kuo.medium.com/data-structures-at-play-sliding-block-puzzle-and-permutation-inversions-c2e1a5494d52
-    // Function to check if the puzzle is solvable based on number of inversions,
-    // takes no inputs as it operates on the object´s state and gives boolean
+    // Every move swaps the 0 with a tile, so a board can reach the goal exactly if the parity of the
+    // permutation (board -> goal, blank included) equals the parity of the blank's distance to its goal cell.
+    // Odd widths: the blank part is always even then, which is the usual "even number of inversions" rule;
+    // even widths (4x4, ...) also depend on the blank's row. Counts the permutation parity by cycle
+    // decomposition (a cycle of length k = k - 1 swaps), O(n) for n cells instead of the O(n^2) inversion count
+    // takes no inputs as it operates on the object´s state (against the standard goal) and gives boolean
     public boolean isSolvable() {
+        return isSolvable(generateGoalState(size));
+    }
+
+    // Same check against any goal layout
+    public boolean isSolvable(int[][] goalState) {
         // 2d -> 1d
-        int[] flatBoard = Arrays.stream(state).flatMapToInt(Arrays::stream).toArray();
-        int inversions = 0;
-        // Check number of inversions in 1d array  (each number greater than the number to its right)
-        for (int i = 0; i < flatBoard.length; i++) {
-            for (int j = i + 1; j < flatBoard.length; j++) {
-                if (flatBoard[i] > flatBoard[j] && flatBoard[j] != 0) { //ignore empty space
-                    inversions++;
+        int[] board = new int[size * size];
+        int[] goal = new int[size * size];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(state[i], 0, board, i * size, size);
+            System.arraycopy(goalState[i], 0, goal, i * size, size);
+        }
+        return isSolvable(board, goal, size);
+    }
+
+    // Flat boards (row by row), shared with IDAStarSearch
+    static boolean isSolvable(int[] board, int[] goal, int size) {
+        int cells = board.length;
+        int[] goalCell = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            goalCell[goal[cell]] = cell;
+        }
+        boolean[] visited = new boolean[cells];
+        int swaps = 0;
+        int blank = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (board[cell] == 0) {
+                blank = cell;
+            }
+            for (int c = cell; !visited[c]; c = goalCell[board[c]]) {
+                visited[c] = true;
+                if (c != cell) {
+                    swaps++;
                 }
             }
         }
-        /*
-        Rule for finding solutions:
-        Inversions must be even.
-        */
-        return (inversions % 2 == 0);
+        int goalBlank = goalCell[0];
+        int blankDistance = Math.abs(blank / size - goalBlank / size) + Math.abs(blank % size - goalBlank % size);
+        return (swaps & 1) == (blankDistance & 1);
     }
 
-
+    // Uniformly random board of any size that is always solvable (standard goal), no retries:
+    // Fisher-Yates shuffle, and if the result is in the unsolvable half, swapping two tiles (not the 0)
+    // flips the permutation parity and keeps the blank, so it lands in the solvable half
+    // https://www.geeksforgeeks.org/shuffle-a-given-array-using-fisher-yates-shuffle-algorithm/
+    public static int[][] generateSolvableState(int size, Random random) {
+        int[] board = new int[size * size];
+        for (int i = 0; i < board.length; i++) {
+            board[i] = i;
+        }
+        for (int i = board.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = board[i];
+            board[i] = board[j];
+            board[j] = temp;
+        }
+        int[] goal = new int[size * size];
+        int[][] goalState = generateGoalState(size);
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(goalState[i], 0, goal, i * size, size);
+        }
+        if (!isSolvable(board, goal, size)) {
+            // first two cells without the 0
+            int first = board[0] == 0 ? 1 : 0;
+            int second = board[first + 1] == 0 ? first + 2 : first + 1;
+            int temp = board[first];
+            board[first] = board[second];
+            board[second] = temp;
+        }
+        int[][] state = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(board, i * size, state[i], 0, size);
+        }
+        return state;
+    }
 
     public void printState() {
         int width = size * 3; // Adjust width
@@ -1,194 +1,404 @@
 package org.example;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 // Main class to handle the experiment
 public class PuzzleExperiment {
     private static final int SIZE = 3; // given
     private static final int STATE_COUNT = 100;
+    private static final int RANDOM_WALK_LENGTH = 60; // moves away from the goal for 4x4 states
+    private static final int CHECKPOINT_ROWS = 1000; // result rows between two flushes of the result file
+    private static final int IN_FLIGHT_PER_THREAD = 16; // solve tasks submitted ahead of the reader, per worker
+    // -Dpuzzle.metrics.timed=true: A* runs also measure the heuristic / expansion / queue time split (slows them down)
+    private static final boolean TIMED_METRICS = Boolean.getBoolean("puzzle.metrics.timed");
+    // -Dpuzzle.workload=file: replays the boards of a Workload file (size from the file, all of its boards)
+    // instead of generating new ones; -Dpuzzle.seed=n repeats the generated boards of an earlier run
+    private static final String WORKLOAD = System.getProperty("puzzle.workload");
+    // -Dpuzzle.heuristics=Manhattan,LinearConflict,WalkingDistance: compares just these heuristics (any Heuristic
+    // name), all with the same solver: packed A* on 3x3, IDA* on 4x4, weighted A* on larger boards
+    private static final String HEURISTICS = System.getProperty("puzzle.heuristics");
+    // -Dpuzzle.print.steps=true: prints every board of every solution path (a lot of output on big batches)
+    private static final boolean PRINT_STEPS = Boolean.getBoolean("puzzle.print.steps");
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
 
-    public static void main(String[] args) {
-        // total nodes and time
-        int totalNodesHamming = 0, totalNodesManhattan = 0;
-        long totalTimeHamming = 0, totalTimeManhattan = 0;
+    // Solver variants compared on every random state, label ends up in the "Heuristic" column
+    // the packed runs are the same search with PackedState/LongHashSet, so nodes match and only time/memory differ
+    // the bucket queue run breaks f ties on h (LIFO), so it expands fewer nodes on plateaus
+    // the perfect hash runs use the 3x3 EightPuzzleSolver (no duplicate nodes in the open list, pooled per thread)
+    // the node arena run keeps its nodes in primitive arrays (ArenaAStarSearch, pooled per thread)
+    // the SMA* run never holds more than 1000 nodes, forgotten nodes are generated again when needed
+    private static final SolverRun[] RUNS = {
+            new SolverRun("Hamming", "Hamming", AStarSearch::new),
+            new SolverRun("Manhattan", "Manhattan", AStarSearch::new),
+            new SolverRun("Hamming (packed)", "Hamming", () -> new AStarSearch(true)),
+            new SolverRun("Manhattan (packed)", "Manhattan", () -> new AStarSearch(true)),
+            new SolverRun("Manhattan (packed, bucket queue)", "Manhattan", () -> new AStarSearch(true, OpenList.Type.BUCKET)),
+            new SolverRun("Hamming (perfect hash)", "Hamming", EightPuzzleSolver::forCurrentThread),
+            new SolverRun("Manhattan (perfect hash)", "Manhattan", EightPuzzleSolver::forCurrentThread),
+            new SolverRun("Manhattan (node arena)", "Manhattan", ArenaAStarSearch::forCurrentThread),
+            new SolverRun("Manhattan (IDA*)", "Manhattan", IDAStarSearch::new),
+            new SolverRun("Manhattan (SMA*, 1000 nodes)", "Manhattan", () -> new MemoryBoundedSearch(1000)),
+            new SolverRun("PatternDatabase (packed)", "PatternDatabase", () -> new AStarSearch(true)),
+            new SolverRun("Manhattan (bidirectional MM)", "Manhattan", BidirectionalSearch::new)
+    };
+    // 4x4 batches: A* keeps every node in memory and runs out of heap, so only IDA*
+    private static final SolverRun[] RUNS_4X4 = {
+            new SolverRun("Manhattan (IDA*)", "Manhattan", IDAStarSearch::new),
+            new SolverRun("PatternDatabase (IDA*)", "PatternDatabase", IDAStarSearch::new),
+            new SolverRun("Manhattan (weighted A*, w=2)", "Manhattan", () -> new AStarSearch(true, OpenList.Type.BUCKET, 2))
+    };
+    // 5x5 to 8x8 batches: optimal search is out of reach, weighted A* only (solutions at most w times optimal)
+    private static final SolverRun[] RUNS_LARGE = {
+            new SolverRun("Manhattan (weighted A*, w=10)", "Manhattan", () -> new AStarSearch(false, OpenList.Type.BUCKET, 10))
+    };
 
-        // total memory usage
-        List<Long> memoryUsageHamming = new ArrayList<>();
-        List<Long> memoryUsageManhattan = new ArrayList<>();
+    // optional arguments: board size (3 to 8), number of states, worker threads and result format (xlsx or csv),
+    // e.g. "4 20" for 20 15-puzzles or "3 100000 32 csv" to spread 100k 8-puzzles over 32 threads
+    // with -Dpuzzle.workload the size and number of states come from the file, e.g.
+    // "-Dpuzzle.workload=workload-3x3.bin 0 0 4 csv" replays a depth-stratified set on 4 threads
+    public static void main(String[] args) throws IOException {
+        Workload.Reader workload = WORKLOAD != null ? Workload.open(Paths.get(WORKLOAD)) : null;
+        int size = workload != null ? workload.getSize() : args.length > 0 ? Integer.parseInt(args[0]) : SIZE;
+        int stateCount = args.length > 1 ? Integer.parseInt(args[1]) : STATE_COUNT;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        String format = args.length > 3 ? args[3] : "xlsx";
+        SolverRun[] runs = HEURISTICS != null ? heuristicRuns(size, HEURISTICS.split(","))
+                : size == SIZE ? RUNS : size == 4 ? RUNS_4X4 : RUNS_LARGE;
 
-        // time for each experiment
-        List<Long> experimentTimeHamming = new ArrayList<>();
-        List<Long> experimentTimeManhatan = new ArrayList<>();
+        // pattern database startup: memory mapping the file vs. building it when there is none yet
+        // (3x3 and 4x4 only, the larger batches do not use it)
+        if (PatternDatabase.supports(size)) {
+            long startPatternDatabase = System.nanoTime();
+            PatternDatabase.forSize(size);
+            System.out.println("Pattern database ready after " + (System.nanoTime() - startPatternDatabase) / 1_000_000 + " ms");
+        }
 
-        // Track nodes expanded for each heuristic
-        List<Integer> nodesExpandedHamming = new ArrayList<>();
-        List<Integer> nodesExpandedManhattan = new ArrayList<>();
+        // generates goal state
+        int[][] goalState = Puzzle.generateGoalState(size);
+        // states are read (or generated) on this thread, one at a time as the window moves on, so the batch does
+        // not depend on the thread count and only the states in flight are in memory
+        Iterator<Workload.Instance> instances;
+        if (workload != null) {
+            instances = workload;
+            System.out.println("Replaying the boards of " + WORKLOAD + " (seed " + workload.getSeed() + ")");
+        } else {
+            long seed = Long.getLong("puzzle.seed", System.nanoTime());
+            System.out.println("Seed of the random states: " + seed);
+            instances = randomInstances(size, stateCount, new Random(seed), goalState);
+        }
 
-        // Data for Excel export
-        List<Map<String, Object>> data = new ArrayList<>();
+        // A* counters per variant, also visible over JMX while the batch runs
+        for (SolverRun run : runs) {
+            run.metrics.register(run.label);
+        }
 
-        // generates goal state
-        int[][] goalState = Puzzle.generateGoalState(SIZE);
-        // loop for excercise goal of 100 random states
-        for (int i = 0; i < STATE_COUNT; i++) {
-            // Random puzzle states to solve
-            int[][] randomState = generateRandomState();
-            Puzzle puzzle = new Puzzle(randomState);
-            // We need to be able to skip and retry
-            if (!puzzle.isSolvable()) {
-                i--; // Skip unsolvable states
-                continue;
+        // one task per state and solver variant; every task creates its own solver (pooled ones are per thread),
+        // results are read back in submission order, so the output is the same for any number of threads
+        // only IN_FLIGHT_PER_THREAD tasks per worker are submitted ahead of the reader and a task is gone once its
+        // row is written, so memory stays flat however many states the batch has
+        ForkJoinPool executor = new ForkJoinPool(threads);
+        TaskFeeder feeder = new TaskFeeder(executor, runs, instances, goalState);
+        int window = Math.max(runs.length, threads * IN_FLIGHT_PER_THREAD);
+        ArrayDeque<Task> inFlight = new ArrayDeque<>(window);
+        // batch wall clock: from the first submit to the end of the last solve, so the printing and the result
+        // file are not in it (the reader runs alongside the workers, they only wait on it when the window is full)
+        long startBatch = System.nanoTime();
+        long endBatch = startBatch;
+        int states = 0;
+
+        // rows are appended as the solves come in, the file is only flushed every CHECKPOINT_ROWS rows
+        try (Workload.Reader reader = workload;
+             ResultSink results = "csv".equals(format)
+                     ? new CsvResultSink("PuzzleExperimentResults.csv")
+                     : new ExcelResultSink("PuzzleExperimentResults.xlsx")) {
+            while (inFlight.size() < window) {
+                Task task = feeder.next();
+                if (task == null) {
+                    break;
+                }
+                inFlight.add(task);
             }
-            //Prints state´s number and constellation
-            System.out.println("Experiment #" + (i + 1));
-            System.out.println("Initial State:");
-            puzzle.printState();
-
-
-            Runtime runtime = Runtime.getRuntime();
-            runtime.gc(); // not sure if totally the right aproach, but intention is to have more accurate memory usage callculated
-
-            //Hamming
-            long memoryBeforeHamming = runtime.totalMemory() - runtime.freeMemory();//We measure the memory usage before starting solving with Hamming
-            System.out.println("Solving using Hamming Heuristic...");
-            long startHamming = System.nanoTime(); //timiug in nano due hw power >> problem
-            AStarSearch solverHamming = new AStarSearch(); //A* instance
-            AStarSearch.PuzzleNode hammingGoalNode = solverHamming.solveStepByStep(puzzle, goalState, "Hamming");
-            long endHamming = System.nanoTime(); //end timing
-            double hammingTimeSecs = (endHamming - startHamming) / 1_000_000_000.0; //convert time to ms
-            double hammingTimeMs = hammingTimeSecs * 1000;
-            experimentTimeHamming.add((long) (hammingTimeMs)); //Add time per experiment durchführung
-            //calc. memory usage
-            long memoryAfterHamming = (runtime.totalMemory() - runtime.freeMemory());
-            memoryUsageHamming.add(memoryAfterHamming - memoryBeforeHamming);
-            //calc. nodes and time statistics
-            totalNodesHamming += solverHamming.getExpandedNodes();
-            nodesExpandedHamming.add(solverHamming.getExpandedNodes()); // Store expanded nodes for statistics
-            totalTimeHamming += (long) hammingTimeMs;
-            //Show solution steps
-            List<Puzzle> hammingSolution = solverHamming.reconstructPath(hammingGoalNode);
-            int hammingSolutionDepth = hammingSolution.size() - 1;
-            printSolutionSteps(hammingSolution);
-            // Calculate Effective Branching Factor (EBF) for Hamming
-            double hammingEBF = (hammingSolutionDepth > 0) ? Math.pow(solverHamming.getExpandedNodes(), 1.0 / hammingSolutionDepth) : 0;
-            System.out.println("Hamming Heuristic - Solution Depth (d): " + hammingSolutionDepth);
-            System.out.println("Hamming Heuristic - EBF: " + hammingEBF);
-
-
-
-            runtime.gc();
-
-            //Manhattan
-            long memoryBeforeManhattan = runtime.totalMemory() - runtime.freeMemory(); //mem.before Man.
-            System.out.println("Solving using Manhattan Heuristic...");
-            long startManhattan = System.nanoTime(); //start time
-            AStarSearch solverManhattan = new AStarSearch();
-            AStarSearch.PuzzleNode manhattanGoalNode = solverManhattan.solveStepByStep(puzzle, goalState, "Manhattan");
-            long endManhattan = System.nanoTime(); //end time
-            double manhattanTimeMs = (endManhattan - startManhattan)/ 1_000_000_000.0;
-            experimentTimeManhatan.add((long) (manhattanTimeMs * 1000));
-            //mem.usage
-            long memoryAfterManhattan = runtime.totalMemory() - runtime.freeMemory();
-            memoryUsageManhattan.add(memoryAfterManhattan - memoryBeforeManhattan);
-            //calc. nodes and time statistics
-            totalNodesManhattan += solverManhattan.getExpandedNodes();
-            nodesExpandedManhattan.add(solverManhattan.getExpandedNodes());
-            totalTimeManhattan += (long) manhattanTimeMs;
-            //show solution steps
-            List<Puzzle> manhattanSolution = solverManhattan.reconstructPath(manhattanGoalNode);
-            int manhattanSolutionDepth = manhattanSolution.size() - 1;
-            printSolutionSteps(manhattanSolution);
-            // Calculate Effective Branching Factor (EBF) for Manhattan
-            double manhattanEBF = (manhattanSolutionDepth > 0) ? Math.pow(solverManhattan.getExpandedNodes(), 1.0 / manhattanSolutionDepth) : 0;
-            System.out.println("Manhattan Heuristic - Solution Depth (d): " + manhattanSolutionDepth);
-            System.out.println("Manhattan Heuristic - EBF: " + manhattanEBF);
-
-            //pretty formatting
-            System.out.println("======================================");
-            // After Hamming calculations for Excel Spreadsheet
-            Map<String, Object> hammingData = Map.of(
-                    "Heuristic", "Hamming",
-                    "ExecutionTime (ms)", String.format("%.10f", hammingTimeMs),
-                    "MeanMemory (bytes)", memoryAfterHamming - memoryBeforeHamming,
-                    "NodesExpanded", solverHamming.getExpandedNodes(),
-                    "SolutionDepth", hammingSolutionDepth,
-                    "EBF", hammingEBF
-            );
-            data.add(hammingData);
-
-            // For Excel Manhattan calculations
-            Map<String, Object> manhattanData = Map.of(
-                    "Heuristic", "Manhattan",
-                    "ExecutionTime (ms)", String.format("%.10f", manhattanTimeMs),
-                    "MeanMemory (bytes)", memoryAfterManhattan - memoryBeforeManhattan,
-                    "NodesExpanded", solverManhattan.getExpandedNodes(),
-                    "SolutionDepth", manhattanSolutionDepth,
-                    "EBF", manhattanEBF
-            );
-            data.add(manhattanData);
-            exportToExcel(data);
+            int rows = 0;
+            while (!inFlight.isEmpty()) {
+                Task task = inFlight.poll();
+                SolveResult result = await(task.future);
+                endBatch = Math.max(endBatch, result.finishedAt);
+                Task next = feeder.next(); // refill the window
+                if (next != null) {
+                    inFlight.add(next);
+                }
+                if (task.run == 0) {
+                    states++;
+                    //Prints state´s number and constellation
+                    System.out.println("Experiment #" + states);
+                    System.out.println("Initial State:");
+                    task.instance.getPuzzle().printState();
+                }
+
+                SolverRun run = runs[task.run];
+                System.out.println("Solving using " + run.label + " Heuristic...");
+                run.experimentTime.add((long) result.timeMs); //Add time per experiment durchführung
+                run.allocatedBytes.add(result.allocatedBytes);
+                //calc. nodes and time statistics
+                run.nodesExpanded.add(result.expandedNodes); // Store expanded nodes for statistics
+                run.peakNodes.add(result.peakNodes);
+                run.totalTime += (long) result.timeMs;
+                run.totalNanos += (long) (result.timeMs * 1_000_000);
+                run.totalExpanded += result.expandedNodes;
+                //Show solution steps
+                int solutionDepth = result.solution.size() - 1;
+                if (PRINT_STEPS) {
+                    printSolutionSteps(result.solution);
+                }
+                // Calculate Effective Branching Factor (EBF)
+                double ebf = (solutionDepth > 0) ? Math.pow(result.expandedNodes, 1.0 / solutionDepth) : 0;
+                System.out.println(run.label + " Heuristic - Solution Depth (d): " + solutionDepth);
+                System.out.println(run.label + " Heuristic - EBF: " + ebf);
+                System.out.println(run.label + " Heuristic - Peak Nodes: " + result.peakNodes);
+
+                // For Excel Spreadsheet / CSV
+                results.append(Map.of(
+                        "Heuristic", run.label,
+                        "ExecutionTime (ms)", String.format("%.10f", result.timeMs),
+                        "AllocatedBytes", result.allocatedBytes,
+                        "NodesExpanded", result.expandedNodes,
+                        "SolutionDepth", solutionDepth,
+                        "EBF", ebf,
+                        "PeakNodes", result.peakNodes,
+                        "Bucket", task.instance.getBucket()
+                ));
+                if (++rows % CHECKPOINT_ROWS == 0) {
+                    results.flush();
+                }
+
+                if (task.run == runs.length - 1) {
+                    //pretty formatting
+                    System.out.println("======================================");
+                }
+            }
+        } finally {
+            executor.shutdown();
         }
+        awaitTermination(executor);
+        long batchTimeMs = (endBatch - startBatch) / 1_000_000;
 
         // Findings for our 100 experiment attempts
-        System.out.println("Hamming Heuristic:");
-        System.out.println("Total Execution Time (ms): " + totalTimeHamming);
-        printStatistics("Memory Usage (bytes)", memoryUsageHamming);
-        //System.out.println("Average Nodes Expanded: " + (totalNodesHamming / (double) STATE_COUNT));
-        printStatistics("Execution Time (ms)", experimentTimeHamming);
-        System.out.println("Nodes Expanded Statistics for Hamming:");
-        printStatistics("Nodes Expanded", nodesExpandedHamming);
-        System.out.println("__________________________________________");
-        System.out.println("Manhattan Heuristic:");
-        System.out.println("Total Execution Time (ms): " + totalTimeManhattan);
-        printStatistics("Memory Usage (bytes)", memoryUsageManhattan);
-        //System.out.println("Average Nodes Expanded: " + (totalNodesManhattan / (double) STATE_COUNT));
-        printStatistics("Execution Time (ms)", experimentTimeManhatan);
-        printStatistics("Nodes Expanded", nodesExpandedManhattan);
+        for (SolverRun run : runs) {
+            System.out.println(run.label + " Heuristic:");
+            System.out.println("Total Execution Time (ms): " + run.totalTime);
+            System.out.println("Total Nodes Expanded: " + run.totalExpanded + ", time per expansion (ns): "
+                    + (run.totalExpanded > 0 ? run.totalNanos / run.totalExpanded : 0));
+            printStatistics("Allocated Memory (bytes)", run.allocatedBytes);
+            printStatistics("Execution Time (ms)", run.experimentTime);
+            System.out.println("Execution Time percentiles (ms):");
+            System.out.println("  p50: " + run.latency.percentile(50) / 1e6 + ", p99: " + run.latency.percentile(99) / 1e6
+                    + ", p99.9: " + run.latency.percentile(99.9) / 1e6);
+            printStatistics("Nodes Expanded", run.nodesExpanded);
+            printStatistics("Peak Nodes", run.peakNodes);
+            if (run.metrics.getSolves() > 0) {
+                System.out.println("Search metrics: " + run.metrics.snapshot());
+            }
+            System.out.println("__________________________________________");
+        }
+        System.out.println(states + " states solved");
+        System.out.println("Wall clock time of the batch (ms): " + batchTimeMs + " on " + threads + " thread(s)");
+    }
 
+    // One run per heuristic name, same solver for all of them so only the heuristic differs
+    // names the board size has no tables for are rejected here, before any worker starts
+    private static SolverRun[] heuristicRuns(int size, String[] heuristics) {
+        SolverRun[] runs = new SolverRun[heuristics.length];
+        for (int i = 0; i < heuristics.length; i++) {
+            String heuristic = heuristics[i].trim();
+            if (!Heuristic.supports(heuristic, size)) {
+                throw new IllegalArgumentException("Heuristic " + heuristic + " is not available for " + size + "x" + size
+                        + " boards (PatternDatabase: 3x3 and 4x4 only, WalkingDistance: up to 4x4)");
+            }
+            if (!Arrays.asList(Heuristic.NAMES).contains(heuristic)) {
+                System.out.println("Unknown heuristic " + heuristic + ", runs as uniform cost search (known: "
+                        + String.join(", ", Heuristic.NAMES) + ")");
+            }
+            if (size == SIZE) {
+                runs[i] = new SolverRun(heuristic + " (packed, bucket queue)", heuristic, () -> new AStarSearch(true, OpenList.Type.BUCKET));
+            } else if (size == 4) {
+                runs[i] = new SolverRun(heuristic + " (IDA*)", heuristic, IDAStarSearch::new);
+            } else {
+                runs[i] = new SolverRun(heuristic + " (weighted A*, w=10)", heuristic, () -> new AStarSearch(false, OpenList.Type.BUCKET, 10));
+            }
+        }
+        return runs;
     }
-    // Export data to Excel
-    private static void exportToExcel(List<Map<String, Object>> data) {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Puzzle Experiment20");
-
-            // Create header row
-            Row header = sheet.createRow(0);
-            String[] columns = {"Heuristic", "ExecutionTime (ms)", "MeanMemory (bytes)", "NodesExpanded", "SolutionDepth", "EBF"};
-            for (int i = 0; i < columns.length; i++) {
-                header.createCell(i).setCellValue(columns[i]);
+
+    // Random puzzle states to solve, always solvable: uniformly random ones (bucket -1, depth unknown), except for
+    // 4x4 which are walked away from the goal (uniform 15-puzzles are too hard for the optimal solvers)
+    // made one at a time, in the same order as long as the seed is the same
+    private static Iterator<Workload.Instance> randomInstances(int size, int count, Random random, int[][] goalState) {
+        return new Iterator<Workload.Instance>() {
+            private int made;
+
+            @Override
+            public boolean hasNext() {
+                return made < count;
             }
 
-            // Fill in data
-            int rowNum = 1;
-            for (Map<String, Object> rowData : data) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue((String) rowData.get("Heuristic"));
-                row.createCell(1).setCellValue((String) rowData.get("ExecutionTime (ms)"));
-                row.createCell(2).setCellValue((Long) rowData.get("MeanMemory (bytes)"));
-                row.createCell(3).setCellValue((Integer) rowData.get("NodesExpanded"));
-                row.createCell(4).setCellValue((Integer) rowData.get("SolutionDepth"));
-                row.createCell(5).setCellValue((Double) rowData.get("EBF"));
+            @Override
+            public Workload.Instance next() {
+                if (made == count) {
+                    throw new NoSuchElementException();
+                }
+                made++;
+                return size == 4
+                        ? new Workload.Instance(RANDOM_WALK_LENGTH, new Puzzle(Workload.randomWalk(goalState, RANDOM_WALK_LENGTH, random)))
+                        : new Workload.Instance(-1, new Puzzle(Puzzle.generateSolvableState(size, random)));
             }
+        };
+    }
+
+    // One solve in flight: state, index of the solver variant and the pending result
+    private static final class Task {
+        private final Workload.Instance instance;
+        private final int run;
+        private final Future<SolveResult> future;
+
+        Task(Workload.Instance instance, int run, Future<SolveResult> future) {
+            this.instance = instance;
+            this.run = run;
+            this.future = future;
+        }
+    }
+
+    // Submits the tasks in read back order: every solver variant on a state, then the next state
+    private static final class TaskFeeder {
+        private final ForkJoinPool executor;
+        private final SolverRun[] runs;
+        private final Iterator<Workload.Instance> instances;
+        private final int[][] goalState;
+        private Workload.Instance instance;
+        private int run;
+
+        TaskFeeder(ForkJoinPool executor, SolverRun[] runs, Iterator<Workload.Instance> instances, int[][] goalState) {
+            this.executor = executor;
+            this.runs = runs;
+            this.instances = instances;
+            this.goalState = goalState;
+            this.run = runs.length;
+        }
 
-            // Write to file
-            try (FileOutputStream fileOut = new FileOutputStream("PuzzleExperimentResults.xlsx")) {
-                workbook.write(fileOut);
+        // null once every state has all its tasks
+        Task next() {
+            if (run == runs.length) {
+                if (!instances.hasNext()) {
+                    return null;
+                }
+                instance = instances.next();
+                run = 0;
             }
+            SolverRun solverRun = runs[run];
+            Puzzle puzzle = instance.getPuzzle();
+            return new Task(instance, run++, executor.submit(() -> solve(solverRun, puzzle, goalState)));
+        }
+    }
+
+    // Solves one state with one solver variant on the calling worker thread
+    // memory = bytes allocated by this thread during the solve, not affected by the other workers
+    private static SolveResult solve(SolverRun run, Puzzle puzzle, int[][] goalState) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime(); //timiug in nano due hw power >> problem
+        PuzzleSolver solver = run.solverFactory.get();
+        if (solver instanceof AStarSearch) {
+            ((AStarSearch) solver).setMetrics(run.metrics);
+        }
+        AStarSearch.PuzzleNode goalNode = solver.solveStepByStep(puzzle, goalState, run.heuristic);
+        long end = System.nanoTime(); //end timing
+        long allocatedAfter = allocatedBytes();
+        run.latency.record(end - start);
+        return new SolveResult(solver.reconstructPath(goalNode), solver.getExpandedNodes(), solver.getPeakNodes(),
+                (end - start) / 1_000_000.0, allocatedAfter - allocatedBefore, end);
+    }
+
+    // Bytes allocated by the current thread so far (HotSpot ThreadMXBean)
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a solve", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Solve failed", e.getCause());
+        }
+    }
+
+    // All results are read by now, so the workers are idle or about to be
+    private static void awaitTermination(ForkJoinPool executor) {
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            System.out.println("Data exported to PuzzleExperimentResults.xlsx");
+    // Outcome of one solve
+    private static class SolveResult {
+        private final List<Puzzle> solution;
+        private final int expandedNodes;
+        private final long peakNodes;
+        private final double timeMs;
+        private final long allocatedBytes;
+        private final long finishedAt; // System.nanoTime() at the end of the solve
 
-        } catch (IOException e) {
-            e.printStackTrace();
+        SolveResult(List<Puzzle> solution, int expandedNodes, long peakNodes, double timeMs, long allocatedBytes,
+                    long finishedAt) {
+            this.solution = solution;
+            this.expandedNodes = expandedNodes;
+            this.peakNodes = peakNodes;
+            this.timeMs = timeMs;
+            this.allocatedBytes = allocatedBytes;
+            this.finishedAt = finishedAt;
         }
     }
+
+    // One solver variant and the statistics collected for it over all experiments
+    private static class SolverRun {
+        private final String label;
+        private final String heuristic;
+        private final Supplier<PuzzleSolver> solverFactory;
+
+        private long totalTime; // total time (ms)
+        private long totalNanos; // total time (ns), for the time per expansion
+        private long totalExpanded;
+        private final RunningStatistics allocatedBytes = new RunningStatistics(); // allocated bytes per experiment
+        private final RunningStatistics experimentTime = new RunningStatistics(); // time for each experiment (ms)
+        private final RunningStatistics nodesExpanded = new RunningStatistics(); // nodes expanded per experiment
+        private final RunningStatistics peakNodes = new RunningStatistics(); // most nodes in memory per experiment
+        private final LatencyHistogram latency = new LatencyHistogram(); // solve times (ns), written by the workers
+        private final SolverMetrics metrics = new SolverMetrics(TIMED_METRICS); // filled by the A* solvers
+
+        SolverRun(String label, String heuristic, Supplier<PuzzleSolver> solverFactory) {
+            this.label = label;
+            this.heuristic = heuristic;
+            this.solverFactory = solverFactory;
+        }
+    }
+
     // Helper function to print each step of the solution
     private static void printSolutionSteps(List<Puzzle> solution) {
         // In case no solution
@@ -208,46 +418,33 @@ public class PuzzleExperiment {
         System.out.println("Total steps: " + (solution.size() - 1)); // how many steps
     }
 
-    // Helper to calculate and print mean and standard deviation
-    private static <T extends Number> void printStatistics(String statistics, List<T> values) {
-        // list conv. into values for stream, maps and calc.s avarage for longs in stream
-        double mean = values.stream()
-                .mapToDouble(Number::doubleValue)
-                .average().
-                orElse(0.0);
-        // =/=, mean gets substracted from values and the difference gets squared
-        double variance = values.stream()
-                .mapToDouble(value -> Math.pow(value.doubleValue() - mean, 2))
-                .average() // mean of the squared difference (variance)
-                .orElse(0.0);
-        double standDeviation = Math.sqrt(variance); // root to get standard deviation
+    // Mean and standard deviation without keeping the values (Welford), one add per experiment
+    private static class RunningStatistics {
+        private long count;
+        private double mean;
+        private double squaredDifferences; // sum of the squared differences to the mean
 
-        System.out.println(statistics + ":");
-        System.out.println("  Mean: " + mean);
-        System.out.println("  Standard Deviation: " + standDeviation);
+        void add(double value) {
+            count++;
+            double difference = value - mean;
+            mean += difference / count;
+            squaredDifferences += difference * (value - mean);
+        }
+
+        double mean() {
+            return mean;
+        }
+
+        // population standard deviation, as for the whole batch
+        double standardDeviation() {
+            return count > 0 ? Math.sqrt(squaredDifferences / count) : 0.0;
+        }
     }
 
-    //For random board states, it gives a random integer 2d-array as output
-    private static int[][] generateRandomState() {
-        // make(flatten) the puzzle into an array for shuffling
-        int[] puzzleArray = new int[PuzzleExperiment.SIZE * PuzzleExperiment.SIZE];
-        for (int i = 0; i < puzzleArray.length; i++) {
-            puzzleArray[i] = i;
-        }
-        // Fisher-Yates Shuffle Algorithm:
-        // https://www.geeksforgeeks.org/shuffle-a-given-array-using-fisher-yates-shuffle-algorithm/
-        Random x = new Random();
-        for (int i = puzzleArray.length - 1; i > 0; i--) {
-            int j = x.nextInt(i + 1);
-            int temp = puzzleArray[i];
-            puzzleArray[i] = puzzleArray[j];
-            puzzleArray[j] = temp;
-        }
-        // makes the shuffled array into an 2d array for PuzzleExper
-        int[][] board = new int[PuzzleExperiment.SIZE][PuzzleExperiment.SIZE];
-        for (int i = 0; i < PuzzleExperiment.SIZE; i++) {
-            System.arraycopy(puzzleArray, i * PuzzleExperiment.SIZE, board[i], 0, PuzzleExperiment.SIZE);
-        }
-        return board;
+    // Helper to print mean and standard deviation
+    private static void printStatistics(String statistics, RunningStatistics values) {
+        System.out.println(statistics + ":");
+        System.out.println("  Mean: " + values.mean());
+        System.out.println("  Standard Deviation: " + values.standardDeviation());
     }
 }
@@ -0,0 +1,20 @@
+package org.example;
+
+import java.util.List;
+
+// Common call pattern of our solvers: solve -> goal node, then walk back to the start for the path
+// lets PuzzleExperiment compare different search engines on the same states
+public interface PuzzleSolver {
+
+    // Returns the goal node (parents lead back to the start), null if no solution
+    AStarSearch.PuzzleNode solveStepByStep(Puzzle puzzle, int[][] goalState, String heuristicType);
+
+    // Solution steps from start to goal
+    List<Puzzle> reconstructPath(AStarSearch.PuzzleNode goalNode);
+
+    // Number of expanded nodes of the last solve
+    int getExpandedNodes();
+
+    // Most search nodes held in memory at the same time during the last solve
+    long getPeakNodes();
+}
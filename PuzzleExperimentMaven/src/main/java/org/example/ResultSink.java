@@ -0,0 +1,22 @@
+package org.example;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Where PuzzleExperiment writes its result rows, one row per solve, appended as soon as the solve is done
+// Implementations only keep a bounded number of rows in memory, however many solves there are
+public interface ResultSink extends AutoCloseable {
+    String[] COLUMNS = {"Heuristic", "ExecutionTime (ms)", "AllocatedBytes", "NodesExpanded", "SolutionDepth", "EBF", "PeakNodes", "Bucket"};
+
+    // Row keyed by COLUMNS, AllocatedBytes = bytes the solving thread allocated during the solve (ThreadMXBean,
+    // was "MeanMemory (bytes)" in older files), Bucket = workload bucket of the board (depth or random walk
+    // length, -1 if unknown)
+    void append(Map<String, Object> row) throws IOException;
+
+    // Checkpoint: pushes the buffered rows out of memory
+    void flush() throws IOException;
+
+    // Writes whatever is left and finishes the file
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,18 @@
+package org.example;
+
+// Instrumentation driven by a solver: gets the counters of every finished solve (SearchStats)
+// The solver counts into plain fields while it runs and hands them over once at the end, so recording
+// costs nothing per node. NONE is the default: an empty call on a constant, which the JIT inlines away
+@FunctionalInterface
+public interface SearchMetrics {
+    SearchMetrics NONE = stats -> { };
+
+    // Called once per solve, the stats object belongs to the solver and is reused for its next solve
+    void record(SearchStats stats);
+
+    // true = the solver also measures where the time goes (System.nanoTime around every heuristic and
+    // open list call, roughly 20-50 ns each), false = only the counters and the total solve time
+    default boolean isTimed() {
+        return false;
+    }
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+// Counters of one solve, filled by the solver (not thread safe, one instance per solver)
+// generated = successor states created, duplicates = successors dropped because their state was closed,
+// reopened = nodes polled for a state that was expanded before (it was pushed more than once) and expanded again
+public class SearchStats {
+    long generated;
+    long expanded;
+    long reopened;
+    long duplicates;
+    long peakOpen;
+    long peakClosed;
+    long heuristicNanos; // only measured by timed metrics
+    long queueNanos; // open list add + poll, only measured by timed metrics
+    long solveNanos;
+
+    void reset() {
+        generated = 0;
+        expanded = 0;
+        reopened = 0;
+        duplicates = 0;
+        peakOpen = 0;
+        peakClosed = 0;
+        heuristicNanos = 0;
+        queueNanos = 0;
+        solveNanos = 0;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public long getExpanded() {
+        return expanded;
+    }
+
+    public long getReopened() {
+        return reopened;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getPeakOpen() {
+        return peakOpen;
+    }
+
+    public long getPeakClosed() {
+        return peakClosed;
+    }
+
+    public long getHeuristicNanos() {
+        return heuristicNanos;
+    }
+
+    public long getQueueNanos() {
+        return queueNanos;
+    }
+
+    // Everything that is not heuristic or open list: copying states, closed list, path bookkeeping
+    // (the whole solve time when the time split was not measured)
+    public long getExpansionNanos() {
+        return solveNanos - heuristicNanos - queueNanos;
+    }
+
+    public long getSolveNanos() {
+        return solveNanos;
+    }
+}
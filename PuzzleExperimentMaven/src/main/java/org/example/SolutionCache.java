@@ -0,0 +1,203 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Caching layer in front of a solver for boards that come up again and again
+// Solutions are stored as move strings of the blank (U, D, L, R), keyed by the PackedState of the board,
+// at most maxEntries of them, the least recently used one is dropped first
+// Mirroring the board at its main diagonal (and renaming the tiles accordingly) keeps the standard goal
+// as it is, so a board and its mirror image share one entry: the smaller packed value is the key
+// Only used for the standard goal (Puzzle.generateGoalState), other goals go straight to the solver
+public class SolutionCache {
+    private final int size;
+    private final int maxEntries;
+    private final Supplier<PuzzleSolver> solverFactory;
+    private final int[][] goal;
+    private final int[] mirroredTile; // tile -> tile on the mirrored goal cell
+    private final Map<Long, String> solutions;
+    private long hits;
+    private long misses;
+
+    public SolutionCache(int size, int maxEntries, Supplier<PuzzleSolver> solverFactory) {
+        if (!PackedState.fits(size)) {
+            throw new IllegalArgumentException("Boards of size " + size + " cannot be cached");
+        }
+        this.size = size;
+        this.maxEntries = maxEntries;
+        this.solverFactory = solverFactory;
+        this.goal = Puzzle.generateGoalState(size);
+        this.mirroredTile = new int[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                mirroredTile[goal[i][j]] = goal[j][i];
+            }
+        }
+        // access order + removeEldestEntry = LRU
+        this.solutions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > SolutionCache.this.maxEntries;
+            }
+        };
+    }
+
+    // Solution steps from the board to goalState, null if there is none
+    public List<Puzzle> solve(Puzzle puzzle, int[][] goalState, String heuristicType) {
+        String moves = solveMoves(puzzle, goalState, heuristicType);
+        return moves == null ? null : applyMoves(puzzle, moves);
+    }
+
+    // Optimal moves of the blank from the board to goalState, null if there is none
+    public String solveMoves(Puzzle puzzle, int[][] goalState, String heuristicType) {
+        int[][] state = puzzle.getState();
+        if (state.length != size || !isStandardGoal(goalState)) {
+            return movesOf(solve(solverFactory.get(), puzzle, goalState, heuristicType));
+        }
+        int[][] mirrored = mirror(state);
+        long key = PackedState.pack(state);
+        long mirroredKey = PackedState.pack(mirrored);
+        boolean useMirror = Long.compareUnsigned(mirroredKey, key) < 0;
+        long canonicalKey = useMirror ? mirroredKey : key;
+
+        String moves;
+        synchronized (this) {
+            moves = solutions.get(canonicalKey);
+            if (moves != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        if (moves == null) {
+            // solved outside the lock, two threads missing the same board just both solve it
+            Puzzle canonical = useMirror ? new Puzzle(mirrored) : puzzle;
+            moves = movesOf(solve(solverFactory.get(), canonical, goal, heuristicType));
+            if (moves == null) {
+                return null; // unsolvable boards are not cached
+            }
+            synchronized (this) {
+                solutions.put(canonicalKey, moves);
+            }
+        }
+        return useMirror ? mirrorMoves(moves) : moves;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return solutions.size();
+    }
+
+    // Plays the blank moves on the board, one Puzzle per step like reconstructPath
+    public static List<Puzzle> applyMoves(Puzzle puzzle, String moves) {
+        int[][] current = puzzle.getState();
+        int size = current.length;
+        int emptyX = 0, emptyY = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (current[i][j] == 0) {
+                    emptyX = i;
+                    emptyY = j;
+                }
+            }
+        }
+        List<Puzzle> path = new ArrayList<>();
+        path.add(new Puzzle(current));
+        for (int m = 0; m < moves.length(); m++) {
+            char move = moves.charAt(m);
+            int nextX = emptyX + (move == 'U' ? -1 : move == 'D' ? 1 : 0);
+            int nextY = emptyY + (move == 'L' ? -1 : move == 'R' ? 1 : 0);
+            int[][] next = new int[size][];
+            for (int i = 0; i < size; i++) {
+                next[i] = current[i].clone();
+            }
+            next[emptyX][emptyY] = next[nextX][nextY];
+            next[nextX][nextY] = 0;
+            path.add(new Puzzle(next));
+            current = next;
+            emptyX = nextX;
+            emptyY = nextY;
+        }
+        return path;
+    }
+
+    // Blank moves between the steps of a solution path, null for no path
+    public static String movesOf(List<Puzzle> path) {
+        if (path == null) {
+            return null;
+        }
+        StringBuilder moves = new StringBuilder(path.size());
+        int[] previous = blankOf(path.get(0).getState());
+        for (int step = 1; step < path.size(); step++) {
+            int[] blank = blankOf(path.get(step).getState());
+            if (blank[0] != previous[0]) {
+                moves.append(blank[0] < previous[0] ? 'U' : 'D');
+            } else {
+                moves.append(blank[1] < previous[1] ? 'L' : 'R');
+            }
+            previous = blank;
+        }
+        return moves.toString();
+    }
+
+    private static List<Puzzle> solve(PuzzleSolver solver, Puzzle puzzle, int[][] goalState, String heuristicType) {
+        AStarSearch.PuzzleNode goalNode = solver.solveStepByStep(puzzle, goalState, heuristicType);
+        return goalNode == null ? null : solver.reconstructPath(goalNode);
+    }
+
+    // board mirrored at the main diagonal, tiles renamed so the goal maps onto itself
+    private int[][] mirror(int[][] state) {
+        int[][] mirrored = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                mirrored[i][j] = mirroredTile[state[j][i]];
+            }
+        }
+        return mirrored;
+    }
+
+    // rows and columns swap places: Up <-> Left, Down <-> Right
+    private static String mirrorMoves(String moves) {
+        char[] mirrored = new char[moves.length()];
+        for (int m = 0; m < mirrored.length; m++) {
+            char move = moves.charAt(m);
+            mirrored[m] = move == 'U' ? 'L' : move == 'L' ? 'U' : move == 'D' ? 'R' : 'D';
+        }
+        return new String(mirrored);
+    }
+
+    private boolean isStandardGoal(int[][] goalState) {
+        if (goalState.length != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (goalState[i][j] != goal[i][j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int[] blankOf(int[][] state) {
+        for (int i = 0; i < state.length; i++) {
+            for (int j = 0; j < state.length; j++) {
+                if (state[i][j] == 0) {
+                    return new int[]{i, j};
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,245 @@
+package org.example;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Recording SearchMetrics, one instance can be shared by any number of solvers on any threads:
+// sums are LongAdders, peaks LongAccumulators (max), solve times go into a LatencyHistogram
+// Read it with snapshot() or over JMX after register()
+public class SolverMetrics implements SearchMetrics, SolverMetricsMXBean {
+    private final boolean timed;
+    private final LongAdder solves = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder expanded = new LongAdder();
+    private final LongAdder reopened = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAccumulator peakOpen = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator peakClosed = new LongAccumulator(Math::max, 0);
+    private final LongAdder heuristicNanos = new LongAdder();
+    private final LongAdder expansionNanos = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public SolverMetrics() {
+        this(false);
+    }
+
+    // timed = let the solvers measure the heuristic / expansion / queue time split as well
+    public SolverMetrics(boolean timed) {
+        this.timed = timed;
+    }
+
+    @Override
+    public boolean isTimed() {
+        return timed;
+    }
+
+    @Override
+    public void record(SearchStats stats) {
+        solves.increment();
+        generated.add(stats.getGenerated());
+        expanded.add(stats.getExpanded());
+        reopened.add(stats.getReopened());
+        duplicates.add(stats.getDuplicates());
+        peakOpen.accumulate(stats.getPeakOpen());
+        peakClosed.accumulate(stats.getPeakClosed());
+        heuristicNanos.add(stats.getHeuristicNanos());
+        expansionNanos.add(stats.getExpansionNanos());
+        queueNanos.add(stats.getQueueNanos());
+        latency.record(stats.getSolveNanos());
+    }
+
+    // Makes the metrics visible as org.example:type=SolverMetrics,name=<name>
+    public void register(String name) {
+        try {
+            ObjectName objectName = new ObjectName("org.example:type=SolverMetrics,name=" + ObjectName.quote(name));
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register solver metrics " + name, e);
+        }
+    }
+
+    // Consistent enough copy for reporting, the adders are read one after another while solvers may go on
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    @Override
+    public long getSolves() {
+        return solves.sum();
+    }
+
+    @Override
+    public long getGeneratedNodes() {
+        return generated.sum();
+    }
+
+    @Override
+    public long getExpandedNodes() {
+        return expanded.sum();
+    }
+
+    @Override
+    public long getReopenedNodes() {
+        return reopened.sum();
+    }
+
+    @Override
+    public long getDuplicateNodes() {
+        return duplicates.sum();
+    }
+
+    @Override
+    public long getPeakOpenList() {
+        return peakOpen.get();
+    }
+
+    @Override
+    public long getPeakClosedSet() {
+        return peakClosed.get();
+    }
+
+    @Override
+    public long getHeuristicMillis() {
+        return heuristicNanos.sum() / 1_000_000;
+    }
+
+    @Override
+    public long getExpansionMillis() {
+        return expansionNanos.sum() / 1_000_000;
+    }
+
+    @Override
+    public long getQueueMillis() {
+        return queueNanos.sum() / 1_000_000;
+    }
+
+    @Override
+    public double getLatencyP50Millis() {
+        return latency.percentile(50) / 1e6;
+    }
+
+    @Override
+    public double getLatencyP99Millis() {
+        return latency.percentile(99) / 1e6;
+    }
+
+    @Override
+    public double getLatencyP999Millis() {
+        return latency.percentile(99.9) / 1e6;
+    }
+
+    @Override
+    public void reset() {
+        solves.reset();
+        generated.reset();
+        expanded.reset();
+        reopened.reset();
+        duplicates.reset();
+        peakOpen.reset();
+        peakClosed.reset();
+        heuristicNanos.reset();
+        expansionNanos.reset();
+        queueNanos.reset();
+        latency.reset();
+    }
+
+    // Values of the metrics at one point in time
+    public static class Snapshot {
+        private final long solves;
+        private final long generated;
+        private final long expanded;
+        private final long reopened;
+        private final long duplicates;
+        private final long peakOpen;
+        private final long peakClosed;
+        private final long heuristicNanos;
+        private final long expansionNanos;
+        private final long queueNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long p999Nanos;
+
+        private Snapshot(SolverMetrics metrics) {
+            solves = metrics.solves.sum();
+            generated = metrics.generated.sum();
+            expanded = metrics.expanded.sum();
+            reopened = metrics.reopened.sum();
+            duplicates = metrics.duplicates.sum();
+            peakOpen = metrics.peakOpen.get();
+            peakClosed = metrics.peakClosed.get();
+            heuristicNanos = metrics.heuristicNanos.sum();
+            expansionNanos = metrics.expansionNanos.sum();
+            queueNanos = metrics.queueNanos.sum();
+            p50Nanos = metrics.latency.percentile(50);
+            p99Nanos = metrics.latency.percentile(99);
+            p999Nanos = metrics.latency.percentile(99.9);
+        }
+
+        public long getSolves() {
+            return solves;
+        }
+
+        public long getGenerated() {
+            return generated;
+        }
+
+        public long getExpanded() {
+            return expanded;
+        }
+
+        public long getReopened() {
+            return reopened;
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        public long getPeakOpen() {
+            return peakOpen;
+        }
+
+        public long getPeakClosed() {
+            return peakClosed;
+        }
+
+        public long getHeuristicNanos() {
+            return heuristicNanos;
+        }
+
+        public long getExpansionNanos() {
+            return expansionNanos;
+        }
+
+        public long getQueueNanos() {
+            return queueNanos;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getP999Nanos() {
+            return p999Nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "solves=" + solves + ", generated=" + generated + ", expanded=" + expanded + ", reopened=" + reopened
+                    + ", duplicates=" + duplicates + ", peakOpen=" + peakOpen + ", peakClosed=" + peakClosed
+                    + ", heuristic=" + heuristicNanos / 1_000_000 + " ms, expansion=" + expansionNanos / 1_000_000
+                    + " ms, queue=" + queueNanos / 1_000_000 + " ms, p50=" + p50Nanos / 1e6 + " ms, p99="
+                    + p99Nanos / 1e6 + " ms, p99.9=" + p999Nanos / 1e6 + " ms";
+        }
+    }
+}
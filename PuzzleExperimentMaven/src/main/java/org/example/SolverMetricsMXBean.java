@@ -0,0 +1,33 @@
+package org.example;
+
+// JMX view of SolverMetrics (jconsole / VisualVM: org.example:type=SolverMetrics)
+public interface SolverMetricsMXBean {
+
+    long getSolves();
+
+    long getGeneratedNodes();
+
+    long getExpandedNodes();
+
+    long getReopenedNodes();
+
+    long getDuplicateNodes();
+
+    long getPeakOpenList();
+
+    long getPeakClosedSet();
+
+    long getHeuristicMillis();
+
+    long getExpansionMillis();
+
+    long getQueueMillis();
+
+    double getLatencyP50Millis();
+
+    double getLatencyP99Millis();
+
+    double getLatencyP999Millis();
+
+    void reset();
+}
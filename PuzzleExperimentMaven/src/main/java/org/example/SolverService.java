@@ -0,0 +1,354 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+// Long-lived solver for one goal and heuristic, for callers that embed it behind an endpoint
+// - submit() queues the board and returns a future right away; when the bounded queue is full the future fails
+//   with RejectedExecutionException (backpressure: the caller retries later or sheds the request)
+// - identical boards share one request as long as it waits: later ones attach to the queued one, which is then
+//   searched until the latest deadline of its callers. A worker that finds the queue empty waits up to the batch
+//   window for more requests before it starts, so duplicates that arrive close together are solved once
+// - each worker thread takes up to maxBatch requests at a time and solves them with its own ArenaAStarSearch,
+//   which clears and reuses its arrays between solves instead of allocating new ones
+// - every caller's future fails with TimeoutException at that caller's own deadline, whether the board is still
+//   queued, being searched, or shared with a caller who is willing to wait longer; the search itself stops at the
+//   latest deadline of the request (ArenaAStarSearch looks at it every 1024 expansions)
+// Boards up to 4x4, the packed state is the dedupe key
+public class SolverService implements AutoCloseable {
+    private static final long POLL_MILLIS = 50; // how quickly idle workers notice close()
+
+    private final int[][] goalState;
+    private final String heuristicType;
+    private final BlockingQueue<Request> queue;
+    private final ConcurrentHashMap<Long, Request> waiting = new ConcurrentHashMap<>(); // queued, not started
+    private final int maxBatch;
+    private final long batchWindowNanos;
+    private final Thread[] workers;
+    private volatile boolean closed;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder solved = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram(); // submit -> solution, solved requests only
+
+    public SolverService(int[][] goalState, String heuristicType, int workerCount) {
+        this(goalState, heuristicType, workerCount, 1024, 32, 100);
+    }
+
+    public SolverService(int[][] goalState, String heuristicType, int workerCount, int queueCapacity, int maxBatch,
+                         long batchWindowMicros) {
+        if (!PackedState.fits(goalState.length)) {
+            throw new IllegalArgumentException("SolverService works on packed states, boards up to 4x4");
+        }
+        this.goalState = goalState;
+        this.heuristicType = heuristicType;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.batchWindowNanos = TimeUnit.MICROSECONDS.toNanos(batchWindowMicros);
+        workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(this::work, "solver-service-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    // Solution steps from the board to the goal, null if there is none
+    public CompletableFuture<List<Puzzle>> submit(Puzzle puzzle, long timeoutMillis) {
+        long now = System.nanoTime();
+        Waiter waiter = new Waiter(now);
+        submitted.increment();
+        if (closed) {
+            rejected.increment();
+            waiter.future.completeExceptionally(new RejectedExecutionException("SolverService is closed"));
+            return waiter.future;
+        }
+        long deadline = now + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        waiter.future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((solution, failure) -> {
+            if (failure instanceof TimeoutException) {
+                timedOut.increment(); // this caller's deadline, or the search of a shared request ran out
+            }
+        });
+        long key = PackedState.pack(puzzle.getState());
+        Request created = new Request(key, puzzle, deadline, waiter);
+        // attaching happens inside compute and taking a request out of the map as well, so a worker sees
+        // every waiter that made it into the request; a new request is offered to the queue inside compute too,
+        // so it is only in the map once queued and nobody attaches to one the full queue turned down
+        Request request = waiting.compute(key, (k, queued) -> queued != null ? queued.attach(waiter, deadline)
+                : queue.offer(created) ? created : null);
+        if (request == null) {
+            // unless the caller's own timeout already fired (a thread stalled since orTimeout), counted there
+            RejectedExecutionException full = new RejectedExecutionException("Queue full, " + queue.size() + " requests waiting");
+            if (waiter.future.completeExceptionally(full)) {
+                rejected.increment();
+            }
+            return waiter.future;
+        }
+        if (request != created) {
+            deduplicated.increment();
+            return waiter.future;
+        }
+        if (closed && queue.remove(created)) {
+            waiting.remove(key, created); // close() drained the queue before this request got in
+            created.fail(new CancellationException("SolverService is closed"));
+        }
+        return waiter.future;
+    }
+
+    // Stops taking requests, lets running batches finish and cancels what is still queued
+    // interrupted while waiting for the workers: stops waiting, cancels the queue and keeps the interrupt flag
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Request> left = new ArrayList<>();
+        queue.drainTo(left);
+        for (Request request : left) {
+            waiting.remove(request.key, request);
+            request.fail(new CancellationException("SolverService is closed"));
+        }
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    // Requests that shared the solve of an identical queued board
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    // Requests (including attached duplicates) that failed with TimeoutException, each at its own deadline
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    // Requests (including attached duplicates) that got their solution
+    public long getSolved() {
+        return solved.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    // Nanoseconds from submit() to the solution, solved requests only
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    private void work() {
+        ArenaAStarSearch solver = ArenaAStarSearch.forCurrentThread();
+        List<Request> batch = new ArrayList<>(maxBatch);
+        try {
+            while (!closed) {
+                Request first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                // queue ran dry: give duplicates and stragglers the window to come in
+                long windowEnd = System.nanoTime() + batchWindowNanos;
+                while (batch.size() < maxBatch) {
+                    long left = windowEnd - System.nanoTime();
+                    Request next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+                batches.increment();
+                for (Request request : batch) {
+                    waiting.remove(request.key, request); // from here on identical boards get a request of their own
+                }
+                for (Request request : batch) {
+                    solve(solver, request);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            solver.setDeadline(ArenaAStarSearch.NO_DEADLINE);
+            for (Request request : batch) {
+                waiting.remove(request.key, request);
+                request.fail(new CancellationException("SolverService is closed"));
+            }
+        }
+    }
+
+    private void solve(ArenaAStarSearch solver, Request request) {
+        if (request.abandoned()) {
+            return; // every caller already timed out
+        }
+        if (System.nanoTime() - request.deadline > 0) {
+            request.timeOut("Deadline passed in the queue");
+            return;
+        }
+        if (!request.puzzle.isSolvable(goalState)) {
+            request.complete(null); // would search half the state space for nothing
+            return;
+        }
+        solver.setDeadline(request.deadline);
+        try {
+            AStarSearch.PuzzleNode goalNode = solver.solveStepByStep(request.puzzle, goalState, heuristicType);
+            request.complete(goalNode == null ? null : solver.reconstructPath(goalNode));
+        } catch (CancellationException e) {
+            request.timeOut(e.getMessage());
+        } catch (RuntimeException e) {
+            request.fail(e);
+        }
+    }
+
+    // One caller waiting for a board
+    private static final class Waiter {
+        private final CompletableFuture<List<Puzzle>> future = new CompletableFuture<>();
+        private final long submitted;
+
+        Waiter(long submitted) {
+            this.submitted = submitted;
+        }
+    }
+
+    // One board to solve and everybody waiting for it
+    private final class Request {
+        private final long key;
+        private final Puzzle puzzle;
+        private final List<Waiter> waiters = new ArrayList<>(1);
+        private long deadline; // latest of the callers', when the search gives up
+
+        Request(long key, Puzzle puzzle, long deadline, Waiter waiter) {
+            this.key = key;
+            this.puzzle = puzzle;
+            this.deadline = deadline;
+            waiters.add(waiter);
+        }
+
+        // only while the request is in the waiting map; the waiter's own deadline is on its future
+        Request attach(Waiter waiter, long deadline) {
+            waiters.add(waiter);
+            if (deadline - this.deadline > 0) {
+                this.deadline = deadline;
+            }
+            return this;
+        }
+
+        boolean abandoned() {
+            for (Waiter waiter : waiters) {
+                if (!waiter.future.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // callers that timed out in the meantime keep their TimeoutException
+        void complete(List<Puzzle> solution) {
+            long now = System.nanoTime();
+            for (Waiter waiter : waiters) {
+                if (waiter.future.complete(solution)) {
+                    latency.record(now - waiter.submitted);
+                    solved.increment();
+                }
+            }
+        }
+
+        void timeOut(String message) {
+            fail(new TimeoutException(message)); // counted by the futures
+        }
+
+        void fail(Throwable failure) {
+            for (Waiter waiter : waiters) {
+                waiter.future.completeExceptionally(failure);
+            }
+        }
+    }
+
+    // In-process load generator: client threads submit boards from a fixed seeded set and wait for the answer
+    // (closed loop), so there are at most as many requests in flight as clients; a small set makes duplicates
+    // Usage: SolverService [size] [workers] [clients] [seconds] [timeout ms] [distinct boards] [queue capacity]
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int workerCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 4 * workerCount;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        long timeoutMillis = args.length > 4 ? Long.parseLong(args[4]) : 100;
+        int distinct = args.length > 5 ? Integer.parseInt(args[5]) : 500;
+        int queueCapacity = args.length > 6 ? Integer.parseInt(args[6]) : 1024;
+
+        // 3x3: depths 16-28, 4x4: random walks of 30-60 moves
+        int[] buckets = size == 3 ? new int[]{16, 18, 20, 22, 24, 26, 28} : new int[]{30, 40, 50, 60};
+        List<Workload.Instance> instances = Workload.generate(size, buckets, distinct / buckets.length + 1, 42);
+        int[][] goalState = Puzzle.generateGoalState(size);
+        String heuristicType = "PatternDatabase";
+        PatternDatabase.forSize(size); // mapped before measuring
+
+        SolverService service = new SolverService(goalState, heuristicType, workerCount, queueCapacity, 32, 100);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            Random random = new Random(c);
+            threads[c] = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    Puzzle puzzle = instances.get(random.nextInt(instances.size())).getPuzzle();
+                    Future<List<Puzzle>> solution = service.submit(puzzle, timeoutMillis);
+                    try {
+                        solution.get();
+                    } catch (ExecutionException e) {
+                        // timed out or rejected, counted by the service
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            threads[c].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        service.close();
+
+        LatencyHistogram latency = service.getLatency();
+        System.out.printf("%dx%d, %s, %d workers, %d clients, %d s, %d ms timeout, %d distinct boards%n",
+                size, size, heuristicType, workerCount, clients, seconds, timeoutMillis, instances.size());
+        System.out.printf("Throughput: %.0f solved/s (%d submitted, %d solved, %d deduplicated, %d rejected, %d timed out)%n",
+                service.getSolved() / (double) seconds, service.getSubmitted(), service.getSolved(),
+                service.getDeduplicated(), service.getRejected(), service.getTimedOut());
+        System.out.printf("Batches: %d, %.1f requests each%n", service.getBatches(),
+                (service.getSubmitted() - service.getDeduplicated() - service.getRejected()) / (double) Math.max(1, service.getBatches()));
+        System.out.printf("Latency (ms): p50 %.3f, p99 %.3f, p99.9 %.3f%n", latency.percentile(50) / 1e6,
+                latency.percentile(99) / 1e6, latency.percentile(99.9) / 1e6);
+    }
+}
@@ -0,0 +1,64 @@
+package org.example;
+
+// Heuristics that are a sum over the tiles: cost[tile][cell] is precomputed against the goal layout,
+// so a move only changes the moved tile's share, O(1) per update
+public class TileCostHeuristic implements Heuristic {
+    private final int size;
+    private final int[][] cost; // [tile][cell], 0 for the blank
+
+    private TileCostHeuristic(int size, int[][] cost) {
+        this.size = size;
+        this.cost = cost;
+    }
+
+    // Misplaced tiles
+    public static TileCostHeuristic hamming(int[][] goalState) {
+        int size = goalState.length;
+        int[][] cost = new int[size * size][size * size];
+        for (int goalCell = 0; goalCell < size * size; goalCell++) {
+            int tile = goalState[goalCell / size][goalCell % size];
+            for (int cell = 0; cell < size * size && tile != 0; cell++) {
+                cost[tile][cell] = cell == goalCell ? 0 : 1;
+            }
+        }
+        return new TileCostHeuristic(size, cost);
+    }
+
+    // Sum of the distances of each tile to its goal cell
+    public static TileCostHeuristic manhattan(int[][] goalState) {
+        int size = goalState.length;
+        int[][] cost = new int[size * size][size * size];
+        for (int goalCell = 0; goalCell < size * size; goalCell++) {
+            int tile = goalState[goalCell / size][goalCell % size];
+            for (int cell = 0; cell < size * size && tile != 0; cell++) {
+                cost[tile][cell] = Math.abs(cell / size - goalCell / size) + Math.abs(cell % size - goalCell % size);
+            }
+        }
+        return new TileCostHeuristic(size, cost);
+    }
+
+    public static TileCostHeuristic zero(int size) {
+        return new TileCostHeuristic(size, new int[size * size][size * size]);
+    }
+
+    @Override
+    public int evaluate(int[][] state) {
+        int h = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                h += cost[state[i][j]][i * size + j];
+            }
+        }
+        return h;
+    }
+
+    @Override
+    public int update(int[][] state, int h, int tile, int from, int to) {
+        return h - cost[tile][from] + cost[tile][to];
+    }
+
+    // Share of one tile on one cell
+    public int cost(int tile, int cell) {
+        return cost[tile][cell];
+    }
+}
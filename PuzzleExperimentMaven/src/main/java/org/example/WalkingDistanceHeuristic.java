@@ -0,0 +1,152 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Walking distance (Takahashi), for any goal layout
+// For the rows only count how many tiles of each goal row sit in each row, plus the row of the blank; a vertical
+// move takes one tile from a row next to the blank's row into it. The fewest such moves from a count matrix to
+// the goal's matrix comes from a table, one backward BFS over all matrices (24,964 for 4x4). Columns the same
+// with goal columns. Horizontal moves never change the row counts and vertical moves never the column counts,
+// so row + column distance is admissible; it sees tiles blocking each other across lines, unlike linear conflict
+// The table only depends on the board size and the goal line of the blank, so it is built once per JVM and
+// shared (read only after the build). Boards up to 4x4, larger ones have far too many matrices
+// Matrix code: 3 bits per count ((line * size + goal line) * 3), the line of the blank from bit 48
+// A move changes two counts and the blank's line of one matrix: moved() gives the new code from the old one.
+// Solvers that keep the two codes with their board (IDA*) update in O(1); update() gets no codes, so it counts
+// the changed matrix of the child board again and derives the parent's from it
+public class WalkingDistanceHeuristic implements Heuristic {
+    private static final int BLANK_SHIFT = 48;
+    private static final Map<Integer, LongIntHashMap> TABLES = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int[] goalRow; // per tile
+    private final int[] goalColumn;
+    private final LongIntHashMap rowTable;
+    private final LongIntHashMap columnTable;
+
+    public WalkingDistanceHeuristic(int[][] goalState) {
+        size = goalState.length;
+        if (!supports(size)) {
+            throw new IllegalArgumentException("Walking distance tables only exist for boards up to 4x4");
+        }
+        goalRow = new int[size * size];
+        goalColumn = new int[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                goalRow[goalState[i][j]] = i;
+                goalColumn[goalState[i][j]] = j;
+            }
+        }
+        rowTable = tableFor(size, goalRow[0]);
+        columnTable = tableFor(size, goalColumn[0]);
+    }
+
+    public static boolean supports(int size) {
+        return PackedState.fits(size);
+    }
+
+    @Override
+    public int evaluate(int[][] state) {
+        return distance(rowCode(state), columnCode(state));
+    }
+
+    @Override
+    public int update(int[][] state, int h, int tile, int from, int to) {
+        boolean vertical = from / size != to / size;
+        LongIntHashMap table = vertical ? rowTable : columnTable;
+        long after = code(state, vertical);
+        long before = moved(after, tile, to, from); // back to the board before the move
+        return h - table.get(before, 0) + table.get(after, 0);
+    }
+
+    // Row (vertical move) or column code after the tile slid from cell from onto the blank at to
+    long moved(long code, int tile, int from, int to) {
+        boolean vertical = from / size != to / size;
+        int lineFrom = vertical ? from / size : from % size;
+        int lineTo = vertical ? to / size : to % size;
+        int goalLine = vertical ? goalRow[tile] : goalColumn[tile];
+        // the tile into the blank's line, the blank into the tile's old line
+        return code - unit(lineFrom, goalLine) + unit(lineTo, goalLine)
+                - ((long) lineTo << BLANK_SHIFT) + ((long) lineFrom << BLANK_SHIFT);
+    }
+
+    // Both codes of a board, the start of the codes a solver carries along
+    long rowCode(int[][] state) {
+        return code(state, true);
+    }
+
+    long columnCode(int[][] state) {
+        return code(state, false);
+    }
+
+    int distance(long rowCode, long columnCode) {
+        return rowTable.get(rowCode, 0) + columnTable.get(columnCode, 0);
+    }
+
+    // Matrices reachable from the goal matrix and their distance to it, per size and goal line of the blank
+    static LongIntHashMap tableFor(int size, int blankGoalLine) {
+        return TABLES.computeIfAbsent(size << 8 | blankGoalLine, key -> build(size, blankGoalLine));
+    }
+
+    private static LongIntHashMap build(int size, int blankGoalLine) {
+        long goal = (long) blankGoalLine << BLANK_SHIFT;
+        for (int line = 0; line < size; line++) {
+            goal += (line == blankGoalLine ? size - 1 : size) * unit(size, line, line);
+        }
+        LongIntHashMap distances = new LongIntHashMap();
+        distances.put(goal, 0);
+        long[] queue = {goal};
+        int head = 0, tail = 1;
+        while (head < tail) {
+            long code = queue[head++];
+            int distance = distances.get(code, 0);
+            int blank = (int) (code >>> BLANK_SHIFT);
+            for (int line = blank - 1; line <= blank + 1; line += 2) {
+                if (line < 0 || line >= size) {
+                    continue;
+                }
+                for (int goalLine = 0; goalLine < size; goalLine++) {
+                    if (((code >>> ((line * size + goalLine) * 3)) & 7) == 0) {
+                        continue; // no tile of that goal line to move over
+                    }
+                    long next = code - unit(size, line, goalLine) + unit(size, blank, goalLine)
+                            - ((long) blank << BLANK_SHIFT) + ((long) line << BLANK_SHIFT);
+                    if (distances.get(next, -1) < 0) {
+                        distances.put(next, distance + 1);
+                        if (tail == queue.length) {
+                            queue = Arrays.copyOf(queue, tail << 1);
+                        }
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return distances;
+    }
+
+    // Count matrix of the rows (or columns) of a board
+    private long code(int[][] state, boolean rows) {
+        long code = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int tile = state[i][j];
+                if (tile == 0) {
+                    code += (long) (rows ? i : j) << BLANK_SHIFT;
+                } else {
+                    code += rows ? unit(i, goalRow[tile]) : unit(j, goalColumn[tile]);
+                }
+            }
+        }
+        return code;
+    }
+
+    private long unit(int line, int goalLine) {
+        return unit(size, line, goalLine);
+    }
+
+    private static long unit(int size, int line, int goalLine) {
+        return 1L << ((line * size + goalLine) * 3);
+    }
+}
@@ -0,0 +1,293 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+// Reproducible sets of start boards ("workloads"), bucketed by difficulty and saved as compact binary files,
+// so runs of different solver versions see exactly the same inputs
+// 3x3: bucket = exact optimal depth (EightPuzzleTable), boards drawn without repetition among all states of
+// that depth; uniformly random boards would mostly land on depth 20-24
+// larger boards: bucket = length of a random walk away from the goal (never straight back), at most the depth
+// Same size, buckets, boards per bucket and seed -> same file
+// File: int "PZWL", byte version, byte size, byte kind, long seed, then records up to the end of the file:
+// short bucket + packed board (long) for boards up to 4x4, one byte per cell for larger ones -> 10 bytes per 3x3 board
+public class Workload {
+    public static final int DEPTH = 0, WALK = 1; // bucket kinds
+    private static final int MAGIC = 0x505A574C; // "PZWL"
+    private static final int VERSION = 1;
+
+    private Workload() {
+    }
+
+    // One start board with its bucket (depth or walk length)
+    public static final class Instance {
+        private final int bucket;
+        private final Puzzle puzzle;
+
+        public Instance(int bucket, Puzzle puzzle) {
+            this.bucket = bucket;
+            this.puzzle = puzzle;
+        }
+
+        public int getBucket() {
+            return bucket;
+        }
+
+        public Puzzle getPuzzle() {
+            return puzzle;
+        }
+    }
+
+    // DEPTH for 3x3 (exact depths are known from the table), WALK for every other size
+    public static int kindFor(int size) {
+        return size == EightPuzzleSolver.SIZE ? DEPTH : WALK;
+    }
+
+    // perBucket boards for every bucket, mixed in a seeded order so no bucket always runs first (JIT warm up)
+    // a 3x3 depth with fewer states than perBucket (0, 1, 30, 31) gets all of them
+    public static List<Instance> generate(int size, int[] buckets, int perBucket, long seed) {
+        int[][] goalState = Puzzle.generateGoalState(size);
+        Random random = new Random(seed);
+        List<Instance> instances = new ArrayList<>();
+        if (kindFor(size) == DEPTH) {
+            EightPuzzleTable table = EightPuzzleTable.forGoal(goalState);
+            int[] board = new int[EightPuzzleSolver.CELLS];
+            for (int depth : buckets) {
+                int[] states = table.statesAt(depth);
+                int count = Math.min(perBucket, states.length);
+                // partial Fisher-Yates: the first count entries end up a random pick without repetition
+                for (int i = 0; i < count; i++) {
+                    int pick = i + random.nextInt(states.length - i);
+                    int index = states[pick];
+                    states[pick] = states[i];
+                    states[i] = index;
+                    EightPuzzleSolver.unrank(index, table.getParity(), board);
+                    instances.add(new Instance(depth, new Puzzle(toState(board, size))));
+                }
+            }
+        } else {
+            for (int length : buckets) {
+                for (int i = 0; i < perBucket; i++) {
+                    instances.add(new Instance(length, new Puzzle(randomWalk(goalState, length, random))));
+                }
+            }
+        }
+        Collections.shuffle(instances, random);
+        return instances;
+    }
+
+    // Random state for any size: slides the 0 around the goal board, never straight back
+    public static int[][] randomWalk(int[][] goalState, int moves, Random random) {
+        int size = goalState.length;
+        int[][] board = new int[size][];
+        int emptyX = 0, emptyY = 0;
+        for (int i = 0; i < size; i++) {
+            board[i] = goalState[i].clone();
+            for (int j = 0; j < size; j++) {
+                if (board[i][j] == 0) {
+                    emptyX = i;
+                    emptyY = j;
+                }
+            }
+        }
+        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}}; // Up, Down, Left, Right
+        int previous = -1;
+        for (int step = 0; step < moves; step++) {
+            int direction = random.nextInt(4);
+            int nextX = emptyX + directions[direction][0];
+            int nextY = emptyY + directions[direction][1];
+            if (nextX < 0 || nextY < 0 || nextX >= size || nextY >= size || direction == (previous ^ 1)) {
+                step--; // not a move, try again
+                continue;
+            }
+            board[emptyX][emptyY] = board[nextX][nextY];
+            board[nextX][nextY] = 0;
+            emptyX = nextX;
+            emptyY = nextY;
+            previous = direction;
+        }
+        return board;
+    }
+
+    public static void write(Path file, int size, long seed, List<Instance> instances) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(size);
+            out.writeByte(kindFor(size));
+            out.writeLong(seed);
+            for (Instance instance : instances) {
+                int[][] state = instance.getPuzzle().getState();
+                out.writeShort(instance.getBucket());
+                if (PackedState.fits(size)) {
+                    out.writeLong(PackedState.pack(state));
+                } else {
+                    for (int[] row : state) {
+                        for (int tile : row) {
+                            out.writeByte(tile);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Streams the file one record at a time
+    public static Reader open(Path file) throws IOException {
+        return new Reader(file);
+    }
+
+    // Whole file in memory
+    public static List<Instance> read(Path file) throws IOException {
+        List<Instance> instances = new ArrayList<>();
+        try (Reader reader = open(file)) {
+            reader.forEachRemaining(instances::add);
+        }
+        return instances;
+    }
+
+    // Iterator over the records of a workload file, read ahead by one record
+    public static final class Reader implements Iterator<Instance>, Closeable {
+        private final DataInputStream in;
+        private final int size;
+        private final int kind;
+        private final long seed;
+        private Instance next;
+
+        private Reader(Path file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+            try {
+                if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                    throw new IOException(file + " is not a workload file of version " + VERSION);
+                }
+                size = in.readUnsignedByte();
+                kind = in.readUnsignedByte();
+                seed = in.readLong();
+                next = readRecord();
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        // DEPTH or WALK
+        public int getKind() {
+            return kind;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Instance next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Instance instance = next;
+            try {
+                next = readRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return instance;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private Instance readRecord() throws IOException {
+            int bucket;
+            try {
+                bucket = in.readShort();
+            } catch (EOFException e) {
+                return null; // end of the records
+            }
+            int[][] state;
+            if (PackedState.fits(size)) {
+                state = PackedState.unpack(in.readLong(), size);
+            } else {
+                state = new int[size][size];
+                for (int[] row : state) {
+                    for (int j = 0; j < size; j++) {
+                        row[j] = in.readUnsignedByte();
+                    }
+                }
+            }
+            return new Instance(bucket, new Puzzle(state));
+        }
+    }
+
+    private static int[][] toState(int[] flat, int size) {
+        int[][] state = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(flat, i * size, state[i], 0, size);
+        }
+        return state;
+    }
+
+    // optional arguments: board size, boards per bucket, bucket range, seed and file,
+    // e.g. "3 100 0-31 42 workload-3x3.bin" or "4 50 10-80/10 7 workload-4x4.bin" (walks of 10, 20, .. 80 moves)
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : EightPuzzleSolver.SIZE;
+        int perBucket = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int[] buckets = parseBuckets(args.length > 2 ? args[2] : size == EightPuzzleSolver.SIZE ? "0-31" : "10-80/10");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        Path file = Paths.get(args.length > 4 ? args[4] : "workload-" + size + "x" + size + ".bin");
+
+        List<Instance> instances = generate(size, buckets, perBucket, seed);
+        write(file, size, seed, instances);
+        int[] counts = new int[buckets[buckets.length - 1] + 1];
+        for (Instance instance : instances) {
+            counts[instance.getBucket()]++;
+        }
+        System.out.println((kindFor(size) == DEPTH ? "Depth" : "Walk length") + ": boards");
+        for (int bucket : buckets) {
+            System.out.println("  " + bucket + ": " + counts[bucket]);
+        }
+        System.out.println(instances.size() + " boards, " + Files.size(file) + " bytes written to " + file);
+    }
+
+    // "from-to" or "from-to/step"
+    private static int[] parseBuckets(String range) {
+        String[] stepParts = range.split("/");
+        String[] bounds = stepParts[0].split("-");
+        int from = Integer.parseInt(bounds[0]);
+        int to = bounds.length > 1 ? Integer.parseInt(bounds[1]) : from;
+        int step = stepParts.length > 1 ? Integer.parseInt(stepParts[1]) : 1;
+        if (from < 0 || to < from || step < 1) {
+            throw new IllegalArgumentException("Bucket range must look like from-to or from-to/step, was " + range);
+        }
+        int[] buckets = new int[(to - from) / step + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = from + i * step;
+        }
+        return buckets;
+    }
+}